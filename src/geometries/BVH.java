@@ -0,0 +1,223 @@
+package geometries;
+
+import primitives.Double3;
+import primitives.Ray;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Class to represent a compiled Bounding Volume Hierarchy (BVH) over finite geometries.<br/>
+ * The nodes of the hierarchy are packed into flat arrays in depth-first order (the left child of a node is
+ * always the next node), and the hierarchy is traversed iteratively (see {@link BVHNodes}).
+ */
+public class BVH extends Intersectable {
+    /**
+     * The depth down to which a frustum culls the nodes of the hierarchy
+     */
+    private static final int CULL_DEPTH = 4;
+    /**
+     * The geometries of the hierarchy, ordered so every leaf holds a continuous range of it
+     */
+    private final Intersectable[] geometries;
+    /**
+     * The nodes of the hierarchy
+     */
+    private final BVHNodes nodes;
+    /**
+     * The index of the root node - a part of a hierarchy that was culled by a frustum is made of sub-trees of it
+     */
+    private final int root;
+
+    /**
+     * Constructor for the hierarchy
+     *
+     * @param geometries list of finite geometries
+     */
+    public BVH(List<Intersectable> geometries) {
+        this(geometries, BVHBuilder.DEFAULT_LEAF_SIZE);
+    }
+
+    /**
+     * Constructor for the hierarchy
+     *
+     * @param geometries list of finite geometries
+     * @param leafSize   the maximal amount of geometries in a leaf of the hierarchy
+     */
+    public BVH(List<Intersectable> geometries, int leafSize) {
+        double[] geometriesBounds = new double[geometries.size() * 6];
+        int i = 0;
+        for (Intersectable g : geometries) {
+            g.calcBoundingBox();
+            if (g.boundingBox == null)
+                throw new IllegalArgumentException("BVH can't contain infinite geometries");
+            geometriesBounds[i++] = g.boundingBox.min.getX();
+            geometriesBounds[i++] = g.boundingBox.min.getY();
+            geometriesBounds[i++] = g.boundingBox.min.getZ();
+            geometriesBounds[i++] = g.boundingBox.max.getX();
+            geometriesBounds[i++] = g.boundingBox.max.getY();
+            geometriesBounds[i++] = g.boundingBox.max.getZ();
+        }
+
+        BVHBuilder builder = new BVHBuilder(geometriesBounds, leafSize);
+        BVHBuilder.Node root = builder.build();
+        int[] indices = builder.getIndices();
+        this.geometries = new Intersectable[indices.length];
+        for (i = 0; i < indices.length; i++)
+            this.geometries[i] = geometries.get(indices[i]);
+
+        nodes = new BVHNodes(root);
+        this.root = 0;
+        boundingBox = nodes.getBoundingBox(0);
+    }
+
+    /**
+     * Constructor for a sub-tree of a hierarchy (shares the geometries and the nodes of the hierarchy)
+     *
+     * @param hierarchy the hierarchy
+     * @param root      the index of the root node of the sub-tree
+     */
+    private BVH(BVH hierarchy, int root) {
+        geometries = hierarchy.geometries;
+        nodes = hierarchy.nodes;
+        this.root = root;
+        boundingBox = nodes.getBoundingBox(root);
+    }
+
+    @Override
+    public void calcBoundingBox() {
+        boundingBox = nodes.getBoundingBox(root);
+    }
+
+    @Override
+    public Intersectable cull(Frustum frustum) {
+        if (geometries.length == 0) return null;
+        // the rays of the frustum traverse only the largest sub-trees that may be inside it
+        List<Intersectable> visible = new ArrayList<>();
+        if (!cull(root, frustum, CULL_DEPTH, visible)) return this;
+        if (visible.size() < 2) return visible.isEmpty() ? null : visible.getFirst();
+        Geometries parts = new Geometries(visible);
+        parts.calcBoundingBox();
+        return parts;
+    }
+
+    /**
+     * Collect the largest sub-trees of a sub-tree that may be inside a frustum, down to a depth
+     * (a sub-tree at the depth is kept whole)
+     *
+     * @param node    the index of the root node of the sub-tree
+     * @param frustum the frustum
+     * @param depth   the depth that is left
+     * @param visible the list to add the sub-trees to
+     * @return true if some part of the sub-tree was culled, false if the whole sub-tree was kept
+     */
+    private boolean cull(int node, Frustum frustum, int depth, List<Intersectable> visible) {
+        if (!nodes.intersects(node, frustum)) return true;
+        int[] offsets = nodes.offsets;
+        if (depth > 0 && offsets[node * 2 + 1] < 0) {
+            int start = visible.size();
+            // the non-short-circuit or culls both children
+            if (cull(node + 1, frustum, depth - 1, visible) | cull(offsets[node * 2], frustum, depth - 1, visible))
+                return true;
+            // nothing was culled - the sub-tree is kept whole
+            visible.subList(start, visible.size()).clear();
+        }
+        visible.add(node == root ? this : new BVH(this, node));
+        return false;
+    }
+
+    @Override
+    protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance) {
+        if (geometries.length == 0) return null;
+        List<GeoPoint> intersections = new LinkedList<>();
+        nodes.traverse(root, ray, maxDistance, (offset, count) -> {
+            for (int i = offset; i < offset + count; i++) {
+                List<GeoPoint> tmp = geometries[i].findGeoIntersections(ray, maxDistance);
+                if (tmp != null) intersections.addAll(tmp);
+            }
+            return true;
+        });
+        return intersections.isEmpty() ? null : intersections;
+    }
+
+    @Override
+    protected boolean findClosestHitHelper(Ray ray, HitRecord hit) {
+        return geometries.length != 0 && findClosestHit(root, ray, hit);
+    }
+
+    /**
+     * Find the closest intersection of a ray with a sub-tree of the hierarchy
+     *
+     * @param root the index of the root node of the sub-tree
+     * @param ray  the ray to find the intersection with
+     * @param hit  the record of the closest intersection found so far
+     * @return true if a closer intersection was found (and the record was updated), false otherwise
+     */
+    private boolean findClosestHit(int root, Ray ray, HitRecord hit) {
+        double maxDistance = hit.t;
+        return nodes.findClosest(root, ray, maxDistance, (offset, count, distance) -> {
+            for (int i = offset; i < offset + count; i++)
+                geometries[i].findClosestHit(ray, hit);
+            return hit.t;
+        }) < maxDistance;
+    }
+
+    @Override
+    public void findClosestHits(Ray[] rays, HitRecord[] hits) {
+        if (geometries.length == 0) return;
+        RayPacket packet = new RayPacket();
+        for (int start = 0; start < rays.length; start += RayPacket.SIZE) {
+            packet.load(rays, hits, start, Math.min(RayPacket.SIZE, rays.length - start));
+            findClosestHits(packet);
+        }
+    }
+
+    /**
+     * Find the closest intersections of a packet of rays with the hierarchy. The packet visits a node if any of its
+     * rays hits the node's box, and only those rays go on into the node's sub-tree. Once a single ray is left,
+     * it traverses the rest of the sub-tree alone.
+     *
+     * @param packet the packet of rays
+     */
+    private void findClosestHits(RayPacket packet) {
+        nodes.traverse(root, packet, (node, mask) -> {
+            if (Integer.bitCount(mask) == 1) { // the packet diverged
+                int lane = Integer.numberOfTrailingZeros(mask);
+                findClosestHit(node, packet.rays[lane], packet.hits[lane]);
+                return;
+            }
+            int offset = nodes.offsets[node * 2], count = nodes.offsets[node * 2 + 1];
+            for (int lane = 0; lane < packet.size; lane++)
+                if ((mask & (1 << lane)) != 0)
+                    for (int i = offset; i < offset + count; i++)
+                        geometries[i].findClosestHit(packet.rays[lane], packet.hits[lane]);
+        });
+    }
+
+    @Override
+    protected Double3 calcTransparencyHelper(Ray ray, double maxDistance, Double3 ktr, double minKtr) {
+        if (geometries.length == 0) return ktr;
+        Double3[] result = {ktr};
+        boolean passed = nodes.traverse(root, ray, maxDistance, (offset, count) -> {
+            for (int i = offset; i < offset + count; i++) {
+                result[0] = geometries[i].calcTransparency(ray, maxDistance, result[0], minKtr);
+                if (result[0].lowerThan(minKtr)) // the ray is blocked, no need to continue the traversal
+                    return false;
+            }
+            return true;
+        });
+        return passed ? result[0] : Double3.ZERO;
+    }
+
+    /**
+     * Get the geometries of the hierarchy
+     *
+     * @return the geometries
+     */
+    public List<Intersectable> getGeometries() {
+        if (geometries.length == 0) return List.of();
+        // the geometries of a sub-tree are a continuous range of the geometries of the hierarchy
+        return List.of(geometries).subList(nodes.firstPrimitive(root), nodes.endPrimitive(root));
+    }
+}
@@ -0,0 +1,327 @@
+package geometries;
+
+import java.io.Serial;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Builder of a Bounding Volume Hierarchy (BVH) over a set of primitives.<br/>
+ * The builder works only on the bounding boxes of the primitives, so it can be used for any kind of
+ * primitive. Every node is split by the binned Surface Area Heuristic (SAH) over all three axes,
+ * and big sub-trees are built in parallel with fork/join.
+ */
+class BVHBuilder {
+    /**
+     * The default maximal amount of primitives in a leaf node
+     */
+    static final int DEFAULT_LEAF_SIZE = 4;
+    /**
+     * The amount of bins to use for evaluating the splits along an axis
+     */
+    private static final int BINS_COUNT = 16;
+    /**
+     * Minimal amount of primitives in a node, so it will be built in parallel
+     */
+    private static final int PARALLEL_THRESHOLD = 4096;
+
+    /**
+     * The maximal amount of primitives in a leaf node
+     */
+    private final int leafSize;
+    /**
+     * The bounds of the primitives, 6 values per primitive: minX, minY, minZ, maxX, maxY, maxZ
+     */
+    private final double[] bounds;
+    /**
+     * The centroids of the primitives, 3 values per primitive
+     */
+    private final double[] centroids;
+    /**
+     * The primitives indices, ordered so every node holds a continuous range of it
+     */
+    private final int[] indices;
+
+    /**
+     * Constructor for the builder
+     *
+     * @param bounds   the bounds of the primitives, 6 values per primitive: minX, minY, minZ, maxX, maxY, maxZ
+     * @param leafSize the maximal amount of primitives in a leaf node
+     */
+    BVHBuilder(double[] bounds, int leafSize) {
+        if (leafSize < 1)
+            throw new IllegalArgumentException("leaf size must be positive");
+        this.leafSize = leafSize;
+        this.bounds = bounds;
+
+        int count = bounds.length / 6;
+        centroids = new double[count * 3];
+        indices = new int[count];
+        for (int i = 0; i < count; i++) {
+            indices[i] = i;
+            for (int axis = 0; axis < 3; axis++)
+                centroids[i * 3 + axis] = (bounds[i * 6 + axis] + bounds[i * 6 + axis + 3]) / 2;
+        }
+    }
+
+    /**
+     * Build the hierarchy
+     *
+     * @return the root node of the hierarchy, or null if there are no primitives
+     */
+    Node build() {
+        if (indices.length == 0) return null;
+        BuildTask task = new BuildTask(0, indices.length);
+        return indices.length < PARALLEL_THRESHOLD ? task.compute() : ForkJoinPool.commonPool().invoke(task);
+    }
+
+    /**
+     * Get the primitives indices, ordered so every leaf node holds a continuous range of it
+     *
+     * @return the ordered indices
+     */
+    int[] getIndices() {
+        return indices;
+    }
+
+    /**
+     * Calculate the surface area of a box
+     *
+     * @param box    array that contains the box
+     * @param offset the offset of the box in the array
+     * @return the surface area of the box
+     */
+    private static double area(double[] box, int offset) {
+        double dx = box[offset + 3] - box[offset];
+        double dy = box[offset + 4] - box[offset + 1];
+        double dz = box[offset + 5] - box[offset + 2];
+        return dx < 0 ? 0 : 2 * (dx * dy + dy * dz + dz * dx);
+    }
+
+    /**
+     * Initialize an empty box (that any union with it results the other box)
+     *
+     * @param box    array that contains the box
+     * @param offset the offset of the box in the array
+     */
+    private static void emptyBox(double[] box, int offset) {
+        for (int axis = 0; axis < 3; axis++) {
+            box[offset + axis] = Double.POSITIVE_INFINITY;
+            box[offset + axis + 3] = Double.NEGATIVE_INFINITY;
+        }
+    }
+
+    /**
+     * Expand a box so it will contain another box
+     *
+     * @param box       array that contains the box to expand
+     * @param offset    the offset of the box to expand
+     * @param other     array that contains the other box
+     * @param srcOffset the offset of the other box
+     */
+    private static void unionBox(double[] box, int offset, double[] other, int srcOffset) {
+        for (int axis = 0; axis < 3; axis++) {
+            if (other[srcOffset + axis] < box[offset + axis])
+                box[offset + axis] = other[srcOffset + axis];
+            if (other[srcOffset + axis + 3] > box[offset + axis + 3])
+                box[offset + axis + 3] = other[srcOffset + axis + 3];
+        }
+    }
+
+    /**
+     * A node in the hierarchy. Inner node has two children, leaf node holds a range of the primitives indices.
+     */
+    static final class Node {
+        /**
+         * The bounds of the node: minX, minY, minZ, maxX, maxY, maxZ
+         */
+        final double[] box = new double[6];
+        /**
+         * The axis the node was split by (0 - X, 1 - Y, 2 - Z), for leaf nodes it is -1
+         */
+        int axis = -1;
+        /**
+         * The left child (primitives with lower centroids along the split axis)
+         */
+        Node left;
+        /**
+         * The right child (primitives with higher centroids along the split axis)
+         */
+        Node right;
+        /**
+         * The first index of the primitives range (for leaf nodes only)
+         */
+        int start;
+        /**
+         * The amount of the primitives in the range (for leaf nodes only)
+         */
+        int count;
+
+        /**
+         * Check if this node is a leaf
+         *
+         * @return true if the node is a leaf, false otherwise
+         */
+        boolean isLeaf() {
+            return left == null;
+        }
+    }
+
+    /**
+     * Task that builds a sub-tree over a range of the primitives indices
+     */
+    private final class BuildTask extends RecursiveTask<Node> {
+        /**
+         * Serialization version (the task is never serialized)
+         */
+        @Serial
+        private static final long serialVersionUID = 1L;
+        /**
+         * The first index of the range
+         */
+        private final int start;
+        /**
+         * The index after the last index of the range
+         */
+        private final int end;
+
+        /**
+         * Constructor for the task
+         *
+         * @param start the first index of the range
+         * @param end   the index after the last index of the range
+         */
+        BuildTask(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected Node compute() {
+            Node node = new Node();
+            double[] centroidBox = new double[6];
+            emptyBox(node.box, 0);
+            emptyBox(centroidBox, 0);
+            for (int i = start; i < end; i++) {
+                unionBox(node.box, 0, bounds, indices[i] * 6);
+                for (int axis = 0; axis < 3; axis++) {
+                    double c = centroids[indices[i] * 3 + axis];
+                    if (c < centroidBox[axis]) centroidBox[axis] = c;
+                    if (c > centroidBox[axis + 3]) centroidBox[axis + 3] = c;
+                }
+            }
+
+            int count = end - start;
+            if (count <= leafSize) {
+                node.start = start;
+                node.count = count;
+                return node;
+            }
+
+            int mid = partition(node, centroidBox);
+
+            BuildTask leftTask = new BuildTask(start, mid), rightTask = new BuildTask(mid, end);
+            if (count < PARALLEL_THRESHOLD) {
+                node.left = leftTask.compute();
+                node.right = rightTask.compute();
+            } else {
+                leftTask.fork();
+                node.right = rightTask.compute();
+                node.left = leftTask.join();
+            }
+            return node;
+        }
+
+        /**
+         * Find the split with the lowest SAH cost and partition the range by it
+         *
+         * @param node        the node to split (its split axis is set here)
+         * @param centroidBox the bounds of the centroids in the range
+         * @return the index that splits the range into the left and the right children
+         */
+        private int partition(Node node, double[] centroidBox) {
+            int[] binCounts = new int[BINS_COUNT];
+            double[] binBoxes = new double[BINS_COUNT * 6];
+            double[] sweepBox = new double[6];
+            double[] rightAreas = new double[BINS_COUNT];
+            int[] rightCounts = new int[BINS_COUNT];
+
+            double bestCost = Double.POSITIVE_INFINITY;
+            int bestAxis = -1, bestBin = 0;
+            for (int axis = 0; axis < 3; axis++) {
+                double min = centroidBox[axis], extent = centroidBox[axis + 3] - min;
+                if (extent <= 0) continue; // all the centroids are in the same position along this axis
+
+                // fill the bins
+                Arrays.fill(binCounts, 0);
+                for (int b = 0; b < BINS_COUNT; b++)
+                    emptyBox(binBoxes, b * 6);
+                double scale = BINS_COUNT / extent;
+                for (int i = start; i < end; i++) {
+                    int b = bin(indices[i], axis, min, scale);
+                    binCounts[b]++;
+                    unionBox(binBoxes, b * 6, bounds, indices[i] * 6);
+                }
+
+                // sweep from right to left, to get the cost of every right side
+                emptyBox(sweepBox, 0);
+                int rightCount = 0;
+                for (int b = BINS_COUNT - 1; b > 0; b--) {
+                    unionBox(sweepBox, 0, binBoxes, b * 6);
+                    rightCount += binCounts[b];
+                    rightAreas[b] = area(sweepBox, 0);
+                    rightCounts[b] = rightCount;
+                }
+
+                // sweep from left to right and evaluate the split after every bin
+                emptyBox(sweepBox, 0);
+                int leftCount = 0;
+                for (int b = 0; b < BINS_COUNT - 1; b++) {
+                    unionBox(sweepBox, 0, binBoxes, b * 6);
+                    leftCount += binCounts[b];
+                    if (leftCount == 0 || rightCounts[b + 1] == 0) continue;
+                    double cost = leftCount * area(sweepBox, 0) + rightCounts[b + 1] * rightAreas[b + 1];
+                    if (cost < bestCost) {
+                        bestCost = cost;
+                        bestAxis = axis;
+                        bestBin = b;
+                    }
+                }
+            }
+
+            // all centroids are in the same position, so any split is good as the other
+            if (bestAxis == -1) {
+                node.axis = 0;
+                return (start + end) / 2;
+            }
+
+            node.axis = bestAxis;
+            double min = centroidBox[bestAxis], scale = BINS_COUNT / (centroidBox[bestAxis + 3] - min);
+            int i = start, j = end - 1;
+            while (i <= j) {
+                if (bin(indices[i], bestAxis, min, scale) <= bestBin) {
+                    i++;
+                } else {
+                    int tmp = indices[i];
+                    indices[i] = indices[j];
+                    indices[j--] = tmp;
+                }
+            }
+            return i;
+        }
+
+        /**
+         * Find the bin of a primitive
+         *
+         * @param primitive the index of the primitive
+         * @param axis      the axis of the bins
+         * @param min       the minimal centroid along the axis
+         * @param scale     the amount of bins per unit along the axis
+         * @return the index of the bin
+         */
+        private int bin(int primitive, int axis, double min, double scale) {
+            int b = (int) ((centroids[primitive * 3 + axis] - min) * scale);
+            return b < BINS_COUNT ? b : BINS_COUNT - 1;
+        }
+    }
+}
@@ -0,0 +1,335 @@
+package geometries;
+
+import primitives.Point;
+import primitives.Ray;
+
+import java.util.Arrays;
+
+/**
+ * The nodes of a compiled Bounding Volume Hierarchy (BVH), packed into flat arrays in depth-first order
+ * (the left child of a node is always the next node), so the hierarchy can be traversed iteratively.
+ * The hierarchy doesn't know what its primitives are - every leaf holds a continuous range of primitives indices,
+ * and the traversals of the hierarchy pass the ranges of the leaves they reach to the callers.
+ */
+final class BVHNodes {
+    /**
+     * A visitor of the leaves a traversal reaches
+     */
+    @FunctionalInterface
+    interface LeafVisitor {
+        /**
+         * Visit a leaf
+         *
+         * @param offset the index of the first primitive of the leaf
+         * @param count  the amount of the primitives of the leaf
+         * @return true to continue the traversal, false to stop it
+         */
+        boolean visit(int offset, int count);
+    }
+
+    /**
+     * A search of the closest primitive in the leaves a traversal reaches
+     */
+    @FunctionalInterface
+    interface LeafSearch {
+        /**
+         * Search the primitives of a leaf
+         *
+         * @param offset      the index of the first primitive of the leaf
+         * @param count       the amount of the primitives of the leaf
+         * @param maxDistance the distance to the closest intersection found so far
+         * @return the distance to the closest intersection found so far, including the leaf
+         */
+        double search(int offset, int count, double maxDistance);
+    }
+
+    /**
+     * A visitor of the nodes a traversal of a packet of rays reaches
+     */
+    @FunctionalInterface
+    interface PacketVisitor {
+        /**
+         * Visit a leaf that rays of the packet reached, or a node that only a single ray of the packet reached
+         * (the ray traverses the rest of the sub-tree alone)
+         *
+         * @param node the index of the node
+         * @param mask the mask of the rays of the packet that reached the node
+         */
+        void visit(int node, int mask);
+    }
+
+    /**
+     * The bounds of the nodes, 6 values per node: minX, minY, minZ, maxX, maxY, maxZ
+     */
+    final double[] bounds;
+    /**
+     * The offsets of the nodes, 2 values per node:
+     * <ul>
+     * <li>inner node: the index of the right child, and (-1 - split axis)</li>
+     * <li>leaf node: the index of the first primitive, and the amount of the primitives</li>
+     * </ul>
+     */
+    final int[] offsets;
+
+    /**
+     * Constructor for the nodes - packs a built hierarchy into the arrays
+     *
+     * @param root the root of the hierarchy, null if there are no primitives
+     */
+    BVHNodes(BVHBuilder.Node root) {
+        int nodesCount = countNodes(root);
+        bounds = new double[nodesCount * 6];
+        offsets = new int[nodesCount * 2];
+        if (root != null)
+            flatten(root, 0);
+    }
+
+    /**
+     * Count the nodes of a sub-tree
+     *
+     * @param node the root of the sub-tree
+     * @return the amount of nodes in the sub-tree
+     */
+    private static int countNodes(BVHBuilder.Node node) {
+        if (node == null) return 0;
+        return node.isLeaf() ? 1 : 1 + countNodes(node.left) + countNodes(node.right);
+    }
+
+    /**
+     * Pack a sub-tree into the arrays, in depth-first order
+     *
+     * @param node  the root of the sub-tree
+     * @param index the index of the root in the arrays
+     * @return the index after the last node of the sub-tree
+     */
+    private int flatten(BVHBuilder.Node node, int index) {
+        System.arraycopy(node.box, 0, bounds, index * 6, 6);
+        if (node.isLeaf()) {
+            offsets[index * 2] = node.start;
+            offsets[index * 2 + 1] = node.count;
+            return index + 1;
+        }
+
+        int rightIndex = flatten(node.left, index + 1);
+        offsets[index * 2] = rightIndex;
+        offsets[index * 2 + 1] = -1 - node.axis;
+        return flatten(node.right, rightIndex);
+    }
+
+    /**
+     * Check if there are no nodes
+     *
+     * @return true if the hierarchy is empty, false otherwise
+     */
+    boolean isEmpty() {
+        return offsets.length == 0;
+    }
+
+    /**
+     * Get the bounding box of a sub-tree of the hierarchy
+     *
+     * @param node the index of the root node of the sub-tree
+     * @return the bounding box of the node (an empty box if there are no nodes)
+     */
+    BoundingBox getBoundingBox(int node) {
+        int o = node * 6;
+        return isEmpty() ? new BoundingBox() : new BoundingBox(
+                new Point(bounds[o], bounds[o + 1], bounds[o + 2]),
+                new Point(bounds[o + 3], bounds[o + 4], bounds[o + 5])
+        );
+    }
+
+    /**
+     * Check if the bounds of a node may be inside a frustum
+     *
+     * @param node    the index of the node
+     * @param frustum the frustum
+     * @return false if the node is surely outside the frustum, true otherwise
+     */
+    boolean intersects(int node, Frustum frustum) {
+        int o = node * 6;
+        return frustum.intersects(bounds[o], bounds[o + 1], bounds[o + 2], bounds[o + 3], bounds[o + 4], bounds[o + 5]);
+    }
+
+    /**
+     * Intersect a ray with the bounds of a node
+     *
+     * @param node        the index of the node
+     * @param ray         the ray to intersect
+     * @param maxDistance the maximum distance to find the intersection in
+     * @return the distance to the entrance into the node, or positive infinity if the ray misses it
+     */
+    double intersect(int node, Ray ray, double maxDistance) {
+        int o = node * 6;
+        return BoundingBox.intersect(bounds[o], bounds[o + 1], bounds[o + 2],
+                bounds[o + 3], bounds[o + 4], bounds[o + 5], ray, maxDistance);
+    }
+
+    /**
+     * Get the index of the first primitive of a sub-tree - the primitives of a sub-tree are a continuous range
+     *
+     * @param node the index of the root node of the sub-tree
+     * @return the index of the first primitive
+     */
+    int firstPrimitive(int node) {
+        while (offsets[node * 2 + 1] < 0) node++;
+        return offsets[node * 2];
+    }
+
+    /**
+     * Get the index after the last primitive of a sub-tree
+     *
+     * @param node the index of the root node of the sub-tree
+     * @return the index after the last primitive
+     */
+    int endPrimitive(int node) {
+        while (offsets[node * 2 + 1] < 0) node = offsets[node * 2];
+        return offsets[node * 2] + offsets[node * 2 + 1];
+    }
+
+    /**
+     * Get the child of an inner node that is nearer along its split axis
+     *
+     * @param node     the index of the inner node
+     * @param negative true if the direction of the ray is negative along the split axis
+     * @return the index of the near child
+     */
+    private int nearChild(int node, boolean negative) {
+        return negative ? offsets[node * 2] : node + 1;
+    }
+
+    /**
+     * Get the child of an inner node that is farther along its split axis
+     *
+     * @param node     the index of the inner node
+     * @param negative true if the direction of the ray is negative along the split axis
+     * @return the index of the far child
+     */
+    private int farChild(int node, boolean negative) {
+        return negative ? node + 1 : offsets[node * 2];
+    }
+
+    /**
+     * Traverse a sub-tree with a ray - visit all the leaves whose bounds the ray hits, the near child of every
+     * node first
+     *
+     * @param root        the index of the root node of the sub-tree
+     * @param ray         the ray
+     * @param maxDistance the maximum distance to find the intersections in
+     * @param visitor     the visitor of the leaves
+     * @return true if all the leaves were visited, false if the visitor stopped the traversal
+     */
+    boolean traverse(int root, Ray ray, double maxDistance, LeafVisitor visitor) {
+        int[] stack = new int[64];
+        int stackSize = 0;
+        int node = root;
+        while (true) {
+            if (intersect(node, ray, maxDistance) != Double.POSITIVE_INFINITY) {
+                int offset = offsets[node * 2], count = offsets[node * 2 + 1];
+                if (count < 0) { // inner node
+                    boolean negative = ray.isNegative(-1 - count);
+                    if (stackSize == stack.length) stack = Arrays.copyOf(stack, stackSize * 2);
+                    stack[stackSize++] = farChild(node, negative);
+                    node = nearChild(node, negative);
+                    continue;
+                }
+                if (!visitor.visit(offset, count)) return false;
+            }
+
+            if (stackSize == 0) return true;
+            node = stack[--stackSize];
+        }
+    }
+
+    /**
+     * Search a sub-tree for the closest intersection of a ray - visit the nearer child of every node first
+     * (by the distances to their bounds), and skip the nodes that are farther than the closest intersection
+     * found so far
+     *
+     * @param root        the index of the root node of the sub-tree
+     * @param ray         the ray
+     * @param maxDistance the maximum distance to find the intersection in
+     * @param search      the search of the leaves
+     * @return the distance to the closest intersection, maxDistance if none was found
+     */
+    double findClosest(int root, Ray ray, double maxDistance, LeafSearch search) {
+        if (intersect(root, ray, maxDistance) == Double.POSITIVE_INFINITY) return maxDistance;
+
+        // the stack holds the nodes to visit with the distances to their entrances
+        int[] stack = new int[64];
+        double[] stackDistances = new double[64];
+        int stackSize = 0;
+        int node = root;
+        while (true) {
+            int offset = offsets[node * 2], count = offsets[node * 2 + 1];
+            if (count < 0) { // inner node - skip the children the ray misses
+                int near = node + 1, far = offset;
+                double tNear = intersect(near, ray, maxDistance), tFar = intersect(far, ray, maxDistance);
+                if (tFar < tNear) {
+                    near = offset;
+                    far = node + 1;
+                    double tmp = tNear;
+                    tNear = tFar;
+                    tFar = tmp;
+                }
+                if (tNear != Double.POSITIVE_INFINITY) {
+                    if (tFar != Double.POSITIVE_INFINITY) {
+                        if (stackSize == stack.length) {
+                            stack = Arrays.copyOf(stack, stackSize * 2);
+                            stackDistances = Arrays.copyOf(stackDistances, stackSize * 2);
+                        }
+                        stack[stackSize] = far;
+                        stackDistances[stackSize++] = tFar;
+                    }
+                    node = near;
+                    continue;
+                }
+            } else
+                maxDistance = search.search(offset, count, maxDistance);
+
+            do {
+                if (stackSize == 0) return maxDistance;
+                node = stack[--stackSize];
+            } while (stackDistances[stackSize] > maxDistance);
+        }
+    }
+
+    /**
+     * Traverse a sub-tree with a packet of rays. The packet visits a node if any of its rays hits the node's
+     * bounds, and only those rays go on into the node's sub-tree, the near child of the first of them first.
+     * Once a single ray is left, the node is visited and the ray traverses the rest of the sub-tree alone.
+     *
+     * @param root    the index of the root node of the sub-tree
+     * @param packet  the packet of rays
+     * @param visitor the visitor of the nodes
+     */
+    void traverse(int root, RayPacket packet, PacketVisitor visitor) {
+        // the stack holds the nodes to visit with the rays that visit them
+        int[] stack = new int[64];
+        int[] stackMasks = new int[64];
+        int stackSize = 0;
+        int node = root, mask = packet.fullMask();
+        while (true) {
+            mask = packet.intersect(this, node, mask);
+            if (mask != 0) {
+                int count = offsets[node * 2 + 1];
+                if (count < 0 && Integer.bitCount(mask) > 1) { // inner node
+                    boolean negative = packet.isNegative(Integer.numberOfTrailingZeros(mask), -1 - count);
+                    if (stackSize == stack.length) {
+                        stack = Arrays.copyOf(stack, stackSize * 2);
+                        stackMasks = Arrays.copyOf(stackMasks, stackSize * 2);
+                    }
+                    stackMasks[stackSize] = mask;
+                    stack[stackSize++] = farChild(node, negative);
+                    node = nearChild(node, negative);
+                    continue;
+                }
+                visitor.visit(node, mask);
+            }
+
+            if (stackSize == 0) return;
+            node = stack[--stackSize];
+            mask = stackMasks[stackSize];
+        }
+    }
+}
@@ -2,7 +2,6 @@ package geometries;
 
 import primitives.Point;
 import primitives.Ray;
-import primitives.Vector;
 
 /**
  * Class to represent a bounding box
@@ -44,44 +43,62 @@ public class BoundingBox {
      * @return true if the ray intersects the bounding box, false otherwise
      */
     public boolean hasIntersections(Ray ray) {
-        double boxMinX = min.getX(), boxMinY = min.getY(), boxMinZ = min.getZ();
-        double boxMaxX = max.getX(), boxMaxY = max.getY(), boxMaxZ = max.getZ();
+        return intersect(ray, Double.POSITIVE_INFINITY) != Double.POSITIVE_INFINITY;
+    }
 
-        Point head = ray.getHead();
-        Vector direction = ray.getDirection();
-        double headX = head.getX(), headY = head.getY(), headZ = head.getZ();
-        double dirX = direction.getX(), dirY = direction.getY(), dirZ = direction.getZ();
+    /**
+     * Intersect a ray with the bounding box
+     *
+     * @param ray         the ray to intersect
+     * @param maxDistance the maximum distance to find the intersection in
+     * @return the distance to the entrance into the box (0 if the head of the ray is inside it),
+     * or positive infinity if the ray misses the box within the max distance
+     */
+    public double intersect(Ray ray, double maxDistance) {
+        return intersect(min.getX(), min.getY(), min.getZ(), max.getX(), max.getY(), max.getZ(), ray, maxDistance);
+    }
 
-        double tMin = Double.NEGATIVE_INFINITY, tMax = Double.POSITIVE_INFINITY;
+    /**
+     * Intersect a ray with a box (slab test). The divisions are replaced by multiplications with the inverse
+     * direction that is cached in the ray.
+     *
+     * @param minX        the minimal x of the box
+     * @param minY        the minimal y of the box
+     * @param minZ        the minimal z of the box
+     * @param maxX        the maximal x of the box
+     * @param maxY        the maximal y of the box
+     * @param maxZ        the maximal z of the box
+     * @param ray         the ray to intersect
+     * @param maxDistance the maximum distance to find the intersection in
+     * @return the distance to the entrance into the box (0 if the head of the ray is inside it),
+     * or positive infinity if the ray misses the box within the max distance
+     */
+    static double intersect(double minX, double minY, double minZ, double maxX, double maxY, double maxZ,
+                            Ray ray, double maxDistance) {
+        Point head = ray.getHead();
+        double tNear = 0, tFar = maxDistance;
 
-        if (dirX != 0) {
-            double t1 = (boxMinX - headX) / dirX;
-            double t2 = (boxMaxX - headX) / dirX;
-            tMin = Math.max(tMin, Math.min(t1, t2));
-            tMax = Math.min(tMax, Math.max(t1, t2));
-        } else if (headX <= boxMinX || headX >= boxMaxX) {
-            return false;
-        }
+        // the near and the far slabs are chosen by the sign of the direction
+        double inv = ray.getInvDirX(), h = head.getX();
+        double t1 = ((ray.isNegative(0) ? maxX : minX) - h) * inv, t2 = ((ray.isNegative(0) ? minX : maxX) - h) * inv;
+        if (t1 > tNear) tNear = t1; // NaN (the ray is parallel to the slab and on its border) is ignored
+        if (t2 < tFar) tFar = t2;
 
-        if (dirY != 0) {
-            double t1 = (boxMinY - headY) / dirY;
-            double t2 = (boxMaxY - headY) / dirY;
-            tMin = Math.max(tMin, Math.min(t1, t2));
-            tMax = Math.min(tMax, Math.max(t1, t2));
-        } else if (headY <= boxMinY || headY >= boxMaxY) {
-            return false;
-        }
+        inv = ray.getInvDirY();
+        h = head.getY();
+        t1 = ((ray.isNegative(1) ? maxY : minY) - h) * inv;
+        t2 = ((ray.isNegative(1) ? minY : maxY) - h) * inv;
+        if (t1 > tNear) tNear = t1;
+        if (t2 < tFar) tFar = t2;
 
-        if (dirZ != 0) {
-            double t1 = (boxMinZ - headZ) / dirZ;
-            double t2 = (boxMaxZ - headZ) / dirZ;
-            tMin = Math.max(tMin, Math.min(t1, t2));
-            tMax = Math.min(tMax, Math.max(t1, t2));
-        } else if (headZ <= boxMinZ || headZ >= boxMaxZ) {
-            return false;
-        }
+        inv = ray.getInvDirZ();
+        h = head.getZ();
+        t1 = ((ray.isNegative(2) ? maxZ : minZ) - h) * inv;
+        t2 = ((ray.isNegative(2) ? minZ : maxZ) - h) * inv;
+        if (t1 > tNear) tNear = t1;
+        if (t2 < tFar) tFar = t2;
 
-        return tMax >= tMin;
+        return tNear <= tFar ? tNear : Double.POSITIVE_INFINITY;
     }
 
     /**
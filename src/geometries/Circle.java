@@ -51,6 +51,14 @@ public class Circle extends RadialGeometry {
         return plane.getNormal();
     }
 
+    @Override
+    protected double findClosestDistance(Ray ray, double maxDistance) {
+        double t = plane.findClosestDistance(ray, maxDistance);
+        if (t == Double.POSITIVE_INFINITY || alignZero(ray.getPoint(t).distance(center)) > radius)
+            return Double.POSITIVE_INFINITY;
+        return t;
+    }
+
     @Override
     protected List<Intersectable.GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance) {
         List<Intersectable.GeoPoint> planeIntersections = plane.findGeoIntersections(ray);
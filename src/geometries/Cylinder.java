@@ -81,6 +81,27 @@ public class Cylinder extends Tube {
 
     }
 
+    @Override
+    protected double findClosestDistance(Ray ray, double maxDistance) {
+        double closest = Double.POSITIVE_INFINITY;
+
+        double[] distances = findDistances(ray);
+        if (distances != null) {
+            for (double t : distances) { // the distances are sorted, so the first one on the cylinder is the closest
+                if (t <= 0 || alignZero(maxDistance - t) <= 0) continue;
+                double h = axis.getDirection().dotProduct(ray.getPoint(t).subtract(axis.getHead()));
+                if (alignZero(h) >= 0 && alignZero(h - height) <= 0) {
+                    closest = t;
+                    break;
+                }
+            }
+        }
+
+        return Math.min(closest, Math.min(
+                bottomBase.findClosestDistance(ray, maxDistance),
+                topBase.findClosestDistance(ray, maxDistance)));
+    }
+
     @Override
     protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance) {
         List<GeoPoint> intersections = new LinkedList<>();
@@ -96,14 +117,14 @@ public class Cylinder extends Tube {
             }
         }
 
-        List<GeoPoint> bottomBaseIntersections = bottomBase.findGeoIntersections(ray);
+        List<GeoPoint> bottomBaseIntersections = bottomBase.findGeoIntersections(ray, maxDistance);
         if (bottomBaseIntersections != null) {
             GeoPoint gp = bottomBaseIntersections.getFirst();
             gp.geometry = this;
             intersections.add(gp);
         }
 
-        List<GeoPoint> topBaseIntersections = topBase.findGeoIntersections(ray);
+        List<GeoPoint> topBaseIntersections = topBase.findGeoIntersections(ray, maxDistance);
         if (topBaseIntersections != null) {
             GeoPoint gp = topBaseIntersections.getFirst();
             gp.geometry = this;
@@ -0,0 +1,106 @@
+package geometries;
+
+import primitives.Point;
+import primitives.Vector;
+
+/**
+ * Class to represent an infinite frustum - a convex pyramid from an apex (e.g. the primary rays of a tile of the
+ * image, from the location of the camera through the corners of the tile).<br/>
+ * The frustum is the intersection of the inner sides of its planes, every plane passes through the apex and
+ * two neighbouring edges of the pyramid. The tests are conservative - a box or a plane that may be inside
+ * the frustum is never culled.
+ */
+public class Frustum {
+    /**
+     * The apex of the frustum
+     */
+    private final Point apex;
+    /**
+     * The edges of the frustum (the directions from the apex)
+     */
+    private final Vector[] edges;
+    /**
+     * The normals of the planes of the frustum, 3 values per plane (pointing into the frustum)
+     */
+    private final double[] normals;
+    /**
+     * The dot products of the normals of the planes and the apex
+     */
+    private final double[] distances;
+
+    /**
+     * Constructor for the frustum
+     *
+     * @param apex  the apex of the frustum
+     * @param edges the edges of the frustum, in their order around it (at least 3, in a convex pyramid)
+     */
+    public Frustum(Point apex, Vector... edges) {
+        if (edges.length < 3)
+            throw new IllegalArgumentException("A frustum must have at least 3 edges");
+        this.apex = apex;
+        this.edges = edges.clone();
+        normals = new double[edges.length * 3];
+        distances = new double[edges.length];
+
+        Vector inside = edges[0];
+        for (int k = 1; k < edges.length; k++)
+            inside = inside.add(edges[k]);
+        for (int k = 0; k < edges.length; k++) {
+            Vector n = edges[k].crossProduct(edges[(k + 1) % edges.length]);
+            if (n.dotProduct(inside) < 0) n = n.scale(-1);
+            normals[k * 3] = n.getX();
+            normals[k * 3 + 1] = n.getY();
+            normals[k * 3 + 2] = n.getZ();
+            distances[k] = n.getX() * apex.getX() + n.getY() * apex.getY() + n.getZ() * apex.getZ();
+        }
+    }
+
+    /**
+     * Check if a box may be inside the frustum
+     *
+     * @param box the box
+     * @return false if the box is surely outside the frustum, true otherwise
+     */
+    public boolean intersects(BoundingBox box) {
+        return intersects(box.min.getX(), box.min.getY(), box.min.getZ(),
+                box.max.getX(), box.max.getY(), box.max.getZ());
+    }
+
+    /**
+     * Check if a box may be inside the frustum - the box is outside if its corner that is farthest along the normal
+     * of some plane is still on the outer side of the plane
+     *
+     * @param minX the minimal x of the box
+     * @param minY the minimal y of the box
+     * @param minZ the minimal z of the box
+     * @param maxX the maximal x of the box
+     * @param maxY the maximal y of the box
+     * @param maxZ the maximal z of the box
+     * @return false if the box is surely outside the frustum, true otherwise
+     */
+    boolean intersects(double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
+        for (int k = 0; k < distances.length; k++) {
+            double nx = normals[k * 3], ny = normals[k * 3 + 1], nz = normals[k * 3 + 2];
+            double farthest = nx * (nx > 0 ? maxX : minX) + ny * (ny > 0 ? maxY : minY) + nz * (nz > 0 ? maxZ : minZ);
+            if (farthest < distances[k]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Check if an infinite plane may cross the frustum - the plane misses the frustum if the apex is on one side of
+     * it, and all the edges go away from it (or parallel to it)
+     *
+     * @param q      a point on the plane
+     * @param normal the normal to the plane
+     * @return false if the plane surely misses the frustum, true otherwise
+     */
+    public boolean intersects(Point q, Vector normal) {
+        double side = normal.getX() * (apex.getX() - q.getX()) + normal.getY() * (apex.getY() - q.getY())
+                + normal.getZ() * (apex.getZ() - q.getZ());
+        if (side == 0) return true;
+        for (Vector edge : edges)
+            if (normal.dotProduct(edge) * side < 0) return true;
+        return false;
+    }
+}
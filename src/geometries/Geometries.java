@@ -1,11 +1,13 @@
 package geometries;
 
+import primitives.Double3;
 import primitives.Ray;
 
+import java.util.AbstractSequentialList;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.ListIterator;
 
 /**
  * Class to represent a collection of geometries
@@ -15,6 +17,20 @@ public class Geometries extends Intersectable {
      * List of geometries
      */
     private final List<Intersectable> geometries = new LinkedList<>();
+    /**
+     * The bounded geometries, separated from the unbounded ones when the bounding box is calculated
+     * (null if the bounding box wasn't calculated since the last change of the geometries)
+     */
+    private List<Intersectable> boundedGeometries;
+    /**
+     * The unbounded (infinite) geometries, separated from the bounded ones when the bounding box is calculated
+     */
+    private List<Intersectable> unboundedGeometries;
+    /**
+     * The bounding box of the bounded geometries. Unlike {@link #boundingBox}, it exists even when some of the
+     * geometries are unbounded, so rays that miss it still skip all the bounded geometries.
+     */
+    private BoundingBox boundedBox;
 
     /**
      * Default constructor
@@ -47,6 +63,7 @@ public class Geometries extends Intersectable {
      */
     public void add(Intersectable... geometries) {
         Collections.addAll(this.geometries, geometries);
+        boundedGeometries = unboundedGeometries = null;
     }
 
     /**
@@ -56,32 +73,65 @@ public class Geometries extends Intersectable {
      */
     public void add(List<Intersectable> geometries) {
         this.geometries.addAll(geometries);
+        boundedGeometries = unboundedGeometries = null;
     }
 
     @Override
     public void calcBoundingBox() {
-        if (geometries.isEmpty()) {
-            boundingBox = null;
-        } else {
-            boolean isInfinity = false;
-            boundingBox = new BoundingBox();
-            for (Intersectable g : geometries) {
-                g.calcBoundingBox();
-                if (g.boundingBox == null)
-                    isInfinity = true;
-                else
-                    boundingBox = boundingBox.union(g.boundingBox);
+        List<Intersectable> bounded = new LinkedList<>(), unbounded = new LinkedList<>();
+        boundedBox = new BoundingBox();
+        for (Intersectable g : geometries) {
+            g.calcBoundingBox();
+            if (g.boundingBox == null) {
+                unbounded.add(g);
+            } else {
+                bounded.add(g);
+                boundedBox = boundedBox.union(g.boundingBox);
             }
-
-            if (isInfinity)
-                boundingBox = null;
         }
+        boundedGeometries = List.copyOf(bounded);
+        unboundedGeometries = List.copyOf(unbounded);
+
+        // an unbounded geometry makes the whole collection unbounded
+        boundingBox = geometries.isEmpty() || !unbounded.isEmpty() ? null : boundedBox;
+    }
+
+    /**
+     * Check if a ray may intersect the bounded geometries. The check is needed only if the collection is unbounded
+     * (otherwise its own bounding box was already checked), and there are several bounded geometries
+     * (a single geometry checks its own bounding box, e.g. the BVH that {@link #makeBVH()} creates).
+     *
+     * @param ray         the ray
+     * @param maxDistance the maximum distance to find the intersections in
+     * @return false if the ray surely misses all the bounded geometries, true otherwise
+     */
+    private boolean mayIntersectBounded(Ray ray, double maxDistance) {
+        return boundingBox != null || boundedGeometries.size() < 2
+                || boundedBox.intersect(ray, maxDistance) != Double.POSITIVE_INFINITY;
     }
 
     @Override
     protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance) {
+        if (boundedGeometries == null)
+            return findGeoIntersections(geometries, ray, maxDistance, null);
+
         List<GeoPoint> intersections = null;
+        if (mayIntersectBounded(ray, maxDistance))
+            intersections = findGeoIntersections(boundedGeometries, ray, maxDistance, null);
+        return findGeoIntersections(unboundedGeometries, ray, maxDistance, intersections);
+    }
 
+    /**
+     * Find the intersections of a ray with some of the geometries
+     *
+     * @param geometries    the geometries
+     * @param ray           the ray to find the intersections with
+     * @param maxDistance   the maximum distance to find the intersections in
+     * @param intersections the intersections found so far (null if there are none)
+     * @return the intersections found so far, together with the intersections with the geometries
+     */
+    private static List<GeoPoint> findGeoIntersections(List<Intersectable> geometries, Ray ray, double maxDistance,
+                                                       List<GeoPoint> intersections) {
         for (Intersectable geo : geometries) {
             List<GeoPoint> tmp = geo.findGeoIntersections(ray, maxDistance);
             if (tmp == null) continue; // if there are intersections
@@ -95,6 +145,120 @@ public class Geometries extends Intersectable {
         return intersections;
     }
 
+    @Override
+    protected boolean findClosestHitHelper(Ray ray, HitRecord hit) {
+        boolean found = false;
+        // every hit shrinks the distance of the record, so farther intersections are skipped
+        if (boundedGeometries == null) {
+            for (Intersectable geo : geometries)
+                found |= geo.findClosestHit(ray, hit);
+            return found;
+        }
+
+        // the bounded geometries first, so coinciding surfaces keep the order they were added in
+        if (mayIntersectBounded(ray, hit.t))
+            for (Intersectable geo : boundedGeometries)
+                found |= geo.findClosestHit(ray, hit);
+        for (Intersectable geo : unboundedGeometries)
+            found |= geo.findClosestHit(ray, hit);
+        return found;
+    }
+
+    @Override
+    public void findClosestHits(Ray[] rays, HitRecord[] hits) {
+        // every ray visits the geometries in the same order as in findClosestHitHelper (the children check
+        // their own bounding boxes, so the bounds of the collection are only an optimization for single rays)
+        if (boundedGeometries == null) {
+            for (Intersectable geo : geometries)
+                geo.findClosestHits(rays, hits);
+            return;
+        }
+        for (Intersectable geo : boundedGeometries)
+            geo.findClosestHits(rays, hits);
+        for (Intersectable geo : unboundedGeometries)
+            geo.findClosestHits(rays, hits);
+    }
+
+    @Override
+    protected Double3 calcTransparencyHelper(Ray ray, double maxDistance, Double3 ktr, double minKtr) {
+        if (boundedGeometries == null)
+            return calcTransparency(geometries, ray, maxDistance, ktr, minKtr);
+
+        if (mayIntersectBounded(ray, maxDistance))
+            ktr = calcTransparency(boundedGeometries, ray, maxDistance, ktr, minKtr);
+        if (ktr.lowerThan(minKtr)) return Double3.ZERO;
+        return calcTransparency(unboundedGeometries, ray, maxDistance, ktr, minKtr);
+    }
+
+    /**
+     * Calculate the transparency of some of the geometries along a ray
+     *
+     * @param geometries  the geometries
+     * @param ray         the ray to calculate the transparency along
+     * @param maxDistance the maximum distance to find the intersections in
+     * @param ktr         the transparency accumulated so far
+     * @param minKtr      the transparency under which the ray is considered blocked
+     * @return the accumulated transparency, or {@link Double3#ZERO} if the ray is blocked
+     */
+    private static Double3 calcTransparency(List<Intersectable> geometries, Ray ray, double maxDistance,
+                                            Double3 ktr, double minKtr) {
+        for (Intersectable geo : geometries) {
+            ktr = geo.calcTransparency(ray, maxDistance, ktr, minKtr);
+            if (ktr.lowerThan(minKtr)) // the ray is blocked, no need to check the other geometries
+                return Double3.ZERO;
+        }
+        return ktr;
+    }
+
+    @Override
+    public Intersectable cull(Frustum frustum) {
+        // without the bounding boxes of the geometries nothing can be culled
+        if (boundedGeometries == null) return this;
+        if (boundingBox != null && !frustum.intersects(boundingBox)) return null;
+
+        List<Intersectable> bounded = new LinkedList<>(), unbounded = new LinkedList<>();
+        boolean culled;
+        if (boundingBox != null || boundedGeometries.size() < 2 || frustum.intersects(boundedBox))
+            culled = cull(boundedGeometries, frustum, bounded);
+        else
+            culled = !boundedGeometries.isEmpty();
+        culled |= cull(unboundedGeometries, frustum, unbounded);
+
+        if (!culled) return this;
+        if (bounded.size() + unbounded.size() < 2)
+            return bounded.isEmpty() ? (unbounded.isEmpty() ? null : unbounded.getFirst()) : bounded.getFirst();
+
+        // the visible geometries keep the order of the traversal - the bounded geometries first
+        Geometries visible = new Geometries();
+        visible.geometries.addAll(bounded);
+        visible.geometries.addAll(unbounded);
+        visible.boundedGeometries = List.copyOf(bounded);
+        visible.unboundedGeometries = List.copyOf(unbounded);
+        visible.boundedBox = new BoundingBox();
+        for (Intersectable g : bounded)
+            visible.boundedBox = visible.boundedBox.union(g.boundingBox);
+        visible.boundingBox = unbounded.isEmpty() ? visible.boundedBox : null;
+        return visible;
+    }
+
+    /**
+     * Cull some of the geometries against a frustum
+     *
+     * @param geometries the geometries
+     * @param frustum    the frustum
+     * @param visible    the list to add the parts of the geometries that may be inside the frustum to
+     * @return true if some geometry was culled (removed or replaced by a part of it), false otherwise
+     */
+    private static boolean cull(List<Intersectable> geometries, Frustum frustum, List<Intersectable> visible) {
+        boolean culled = false;
+        for (Intersectable g : geometries) {
+            Intersectable part = g.cull(frustum);
+            if (part != null) visible.add(part);
+            culled |= part != g;
+        }
+        return culled;
+    }
+
     /**
      * Calculate the Conservative Bounding Region for the geometries
      */
@@ -106,21 +270,29 @@ public class Geometries extends Intersectable {
      * Store the geometries as a BVH (Bounding Volume Hierarchy)
      */
     public void makeBVH() {
-        // calculate the bounding box for the geometries, so we can sort them by position
-        calcBoundingBox();
+        makeBVH(BVHBuilder.DEFAULT_LEAF_SIZE);
+    }
 
-        // extract infinite geometries into a separate list
-        List<Intersectable> infiniteGeometries = geometries.stream().filter(g -> g.boundingBox == null).toList();
-        geometries.removeAll(infiniteGeometries);
+    /**
+     * Store the geometries as a BVH (Bounding Volume Hierarchy)
+     *
+     * @param leafSize the maximal amount of geometries in a leaf of the hierarchy
+     */
+    public void makeBVH(int leafSize) {
+        // calculate the bounding box for the geometries, so we can split them by position
+        List<Intersectable> allGeometries = flattenGeometries().geometries;
+        allGeometries.forEach(Intersectable::calcBoundingBox);
 
-        // sort geometries based on their bounding box centroids along an axis (e.g. x-axis)
-        // TODO: find better sorting algorithm
-        geometries.sort(Comparator.comparingDouble(g -> g.boundingBox.getCenter().getX()));
+        // extract infinite geometries into a separate list
+        List<Intersectable> infiniteGeometries = allGeometries.stream().filter(g -> g.boundingBox == null).toList();
+        List<Intersectable> finiteGeometries = allGeometries.stream().filter(g -> g.boundingBox != null).toList();
 
-        // combine each 3 geometries into a bounding box
-        while (geometries.size() >= 3)
-            geometries.add(new Geometries(geometries.removeFirst(), geometries.removeFirst(), geometries.removeFirst()));
+        // build the hierarchy over the finite geometries
+        BVH bvh = new BVH(finiteGeometries, leafSize);
 
+        geometries.clear();
+        if (!finiteGeometries.isEmpty())
+            geometries.add(bvh);
         geometries.addAll(infiniteGeometries); // combine the infinite geometries back
         calcBoundingBox(); // recalculate the bounding box because the geometries have changed
     }
@@ -132,16 +304,97 @@ public class Geometries extends Intersectable {
      */
     public Geometries flattenGeometries() {
         Geometries flatGeometries = new Geometries();
-        geometries.forEach(i -> flatGeometries.add(i instanceof Geometries g ? g.flattenGeometries().geometries : List.of(i)));
+        geometries.forEach(i -> flatGeometries.add(switch (i) {
+            case Geometries g -> g.flattenGeometries().geometries;
+            case BVH bvh -> new Geometries(bvh.getGeometries()).flattenGeometries().geometries;
+            default -> List.of(i);
+        }));
         return flatGeometries;
     }
 
     /**
-     * Get the geometries
+     * Get the geometries. A change of the list drops the separation of the bounded geometries, as {@link #add} does.
      *
      * @return the geometries
      */
     public List<Intersectable> getGeometries() {
-        return geometries;
+        return new AbstractSequentialList<>() {
+            @Override
+            public ListIterator<Intersectable> listIterator(int index) {
+                return new GeometriesIterator(geometries.listIterator(index));
+            }
+
+            @Override
+            public int size() {
+                return geometries.size();
+            }
+        };
+    }
+
+    /**
+     * An iterator of the geometries that drops the separation of the bounded geometries when it changes the list
+     */
+    private class GeometriesIterator implements ListIterator<Intersectable> {
+        /**
+         * The iterator of the list of the geometries
+         */
+        private final ListIterator<Intersectable> iterator;
+
+        /**
+         * Constructor of the iterator
+         *
+         * @param iterator the iterator of the list of the geometries
+         */
+        GeometriesIterator(ListIterator<Intersectable> iterator) {
+            this.iterator = iterator;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return iterator.hasNext();
+        }
+
+        @Override
+        public Intersectable next() {
+            return iterator.next();
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return iterator.hasPrevious();
+        }
+
+        @Override
+        public Intersectable previous() {
+            return iterator.previous();
+        }
+
+        @Override
+        public int nextIndex() {
+            return iterator.nextIndex();
+        }
+
+        @Override
+        public int previousIndex() {
+            return iterator.previousIndex();
+        }
+
+        @Override
+        public void remove() {
+            iterator.remove();
+            boundedGeometries = unboundedGeometries = null;
+        }
+
+        @Override
+        public void set(Intersectable geometry) {
+            iterator.set(geometry);
+            boundedGeometries = unboundedGeometries = null;
+        }
+
+        @Override
+        public void add(Intersectable geometry) {
+            iterator.add(geometry);
+            boundedGeometries = unboundedGeometries = null;
+        }
     }
 }
\ No newline at end of file
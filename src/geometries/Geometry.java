@@ -1,9 +1,8 @@
 package geometries;
 
-import primitives.Color;
-import primitives.Material;
-import primitives.Point;
-import primitives.Vector;
+import primitives.*;
+
+import java.util.List;
 
 /**
  * Interface to present a geometry. All geometries should implement this interface
@@ -61,6 +60,41 @@ abstract public class Geometry extends Intersectable {
         return this;
     }
 
+    @Override
+    protected boolean findClosestHitHelper(Ray ray, HitRecord hit) {
+        double t = findClosestDistance(ray, hit.t);
+        if (t == Double.POSITIVE_INFINITY) return false;
+        hit.update(t, this, -1);
+        return true;
+    }
+
+    /**
+     * Find the distance from the head of a ray to its closest intersection with the geometry
+     *
+     * @param ray         the ray to find the intersection with
+     * @param maxDistance the maximum distance to find the intersection in
+     * @return the distance to the closest intersection, or positive infinity if there is none
+     */
+    protected abstract double findClosestDistance(Ray ray, double maxDistance);
+
+    @Override
+    protected Double3 calcTransparencyHelper(Ray ray, double maxDistance, Double3 ktr, double minKtr) {
+        // a single intersection blocks the ray (e.g. an opaque geometry) - only its existence is needed
+        if (ktr.product(material.kT).lowerThan(minKtr))
+            return findClosestDistance(ray, maxDistance) == Double.POSITIVE_INFINITY ? ktr : Double3.ZERO;
+
+        List<GeoPoint> intersections = findGeoIntersectionsHelper(ray, maxDistance);
+        if (intersections == null)
+            return ktr;
+
+        for (int i = 0; i < intersections.size(); i++) {
+            ktr = ktr.product(material.kT);
+            if (ktr.lowerThan(minKtr))
+                return Double3.ZERO;
+        }
+        return ktr;
+    }
+
     /**
      * returns the normal to the geometry at a given point
      *
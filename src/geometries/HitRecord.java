@@ -0,0 +1,109 @@
+package geometries;
+
+import primitives.Ray;
+
+import static geometries.Intersectable.GeoPoint;
+
+/**
+ * Mutable record of the closest intersection of a ray that was found so far.<br/>
+ * The record is filled in place while the geometries are traversed, so finding the closest intersection doesn't
+ * allocate anything - the intersection point is calculated only for the final hit (see {@link #toGeoPoint(Ray)}).
+ * Every thread has its own record, so the renderer can reuse it for all the rays it traces.
+ */
+public class HitRecord {
+    /**
+     * The record of every thread
+     */
+    private static final ThreadLocal<HitRecord> threadRecord = ThreadLocal.withInitial(HitRecord::new);
+
+    /**
+     * The distance from the head of the ray to the closest intersection found so far
+     * (or the maximum distance to look for intersections in, if there is no intersection yet)
+     */
+    public double t = Double.POSITIVE_INFINITY;
+    /**
+     * The geometry of the closest intersection found so far, null if there is no intersection yet
+     */
+    public Geometry geometry;
+    /**
+     * The index of the intersected primitive inside the geometry (for geometries that are made of primitives),
+     * -1 otherwise
+     */
+    public int index = -1;
+    /**
+     * The barycentric coordinates of the intersection on a triangle (the weights of its second and third vertices),
+     * zero for other geometries
+     */
+    public double u, v;
+
+    /**
+     * Get the record of the current thread
+     *
+     * @param maxDistance the maximum distance to look for intersections in
+     * @return the record of the current thread, after it was reset
+     */
+    public static HitRecord ofCurrentThread(double maxDistance) {
+        return threadRecord.get().reset(maxDistance);
+    }
+
+    /**
+     * Reset the record, so it can be used for another ray
+     *
+     * @param maxDistance the maximum distance to look for intersections in
+     * @return the record (for chaining)
+     */
+    public HitRecord reset(double maxDistance) {
+        t = maxDistance;
+        geometry = null;
+        index = -1;
+        u = v = 0;
+        return this;
+    }
+
+    /**
+     * Update the record with a closer intersection
+     *
+     * @param t        the distance to the intersection
+     * @param geometry the intersected geometry
+     * @param index    the index of the intersected primitive inside the geometry, -1 if there is none
+     */
+    public void update(double t, Geometry geometry, int index) {
+        update(t, geometry, index, 0, 0);
+    }
+
+    /**
+     * Update the record with a closer intersection on a triangle
+     *
+     * @param t        the distance to the intersection
+     * @param geometry the intersected geometry
+     * @param index    the index of the intersected primitive inside the geometry, -1 if there is none
+     * @param u        the barycentric weight of the second vertex of the triangle
+     * @param v        the barycentric weight of the third vertex of the triangle
+     */
+    public void update(double t, Geometry geometry, int index, double u, double v) {
+        this.t = t;
+        this.geometry = geometry;
+        this.index = index;
+        this.u = u;
+        this.v = v;
+    }
+
+    /**
+     * Check if an intersection was found
+     *
+     * @return true if an intersection was found, false otherwise
+     */
+    public boolean hasHit() {
+        return geometry != null;
+    }
+
+    /**
+     * Convert the record into a GeoPoint (calculates the intersection point)
+     *
+     * @param ray the ray the record was filled for
+     * @return the intersection as a GeoPoint, or null if there is no intersection
+     */
+    public GeoPoint toGeoPoint(Ray ray) {
+        return geometry == null ? null : new GeoPoint(geometry, ray.getPoint(t));
+    }
+}
@@ -1,5 +1,6 @@
 package geometries;
 
+import primitives.Double3;
 import primitives.Point;
 import primitives.Ray;
 
@@ -36,7 +37,7 @@ public abstract class Intersectable {
      * @return a list of the intersections points
      */
     public final List<GeoPoint> findGeoIntersections(Ray ray, double maxDistance) {
-        if (boundingBox != null && !boundingBox.hasIntersections(ray))
+        if (boundingBox != null && boundingBox.intersect(ray, maxDistance) == Double.POSITIVE_INFINITY)
             return null;
         return findGeoIntersectionsHelper(ray, maxDistance);
     }
@@ -51,6 +52,107 @@ public abstract class Intersectable {
         return findGeoIntersections(ray, Double.POSITIVE_INFINITY);
     }
 
+    /**
+     * Method to find the closest intersection of a ray with the geometry
+     *
+     * @param ray the ray to find the intersection with
+     * @return the closest intersection point with the geometry that contains the point, or null if there is none
+     */
+    public final GeoPoint findClosestGeoIntersection(Ray ray) {
+        return findClosestGeoIntersection(ray, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Method to find the closest intersection of a ray with the geometry
+     *
+     * @param ray         the ray to find the intersection with
+     * @param maxDistance the maximum distance to find the intersection in
+     * @return the closest intersection point with the geometry that contains the point, or null if there is none
+     */
+    public final GeoPoint findClosestGeoIntersection(Ray ray, double maxDistance) {
+        HitRecord hit = new HitRecord().reset(maxDistance);
+        return findClosestHit(ray, hit) ? hit.toGeoPoint(ray) : null;
+    }
+
+    /**
+     * Method to find the closest intersection of a ray with the geometry, without allocating anything.<br/>
+     * Only intersections that are closer than the current distance of the record are looked for,
+     * and the record is updated in place with the closest of them.
+     *
+     * @param ray the ray to find the intersection with
+     * @param hit the record of the closest intersection found so far
+     * @return true if a closer intersection was found (and the record was updated), false otherwise
+     */
+    public final boolean findClosestHit(Ray ray, HitRecord hit) {
+        // skip the geometry if its box is farther than the closest intersection found so far
+        if (boundingBox != null && boundingBox.intersect(ray, hit.t) == Double.POSITIVE_INFINITY)
+            return false;
+        return findClosestHitHelper(ray, hit);
+    }
+
+    /**
+     * Find the closest intersections of a packet of rays (coherent rays, e.g. the primary rays of a tile) with
+     * the geometry. Every record is updated as by {@link #findClosestHit(Ray, HitRecord)}.
+     * The rays are intersected one by one, unless the geometry traverses them together.
+     *
+     * @param rays the rays to find the intersections with
+     * @param hits the records of the closest intersections found so far, one per ray
+     */
+    public void findClosestHits(Ray[] rays, HitRecord[] hits) {
+        for (int i = 0; i < rays.length; i++)
+            findClosestHit(rays[i], hits[i]);
+    }
+
+    /**
+     * Cull the geometry against a frustum (e.g. of the primary rays of a tile) - get the part of the geometry that
+     * the rays inside the frustum may hit. The geometry is culled by its bounding box, an unbounded geometry is
+     * kept, unless the geometry culls its parts by itself.
+     *
+     * @param frustum the frustum
+     * @return the part of the geometry that may be inside the frustum (the geometry itself if it isn't culled),
+     * or null if the geometry is surely outside the frustum
+     */
+    public Intersectable cull(Frustum frustum) {
+        return boundingBox == null || frustum.intersects(boundingBox) ? this : null;
+    }
+
+    /**
+     * A helper method to find the closest intersection of a ray with the geometry
+     *
+     * @param ray the ray to find the intersection with
+     * @param hit the record of the closest intersection found so far
+     * @return true if a closer intersection was found (and the record was updated), false otherwise
+     */
+    protected abstract boolean findClosestHitHelper(Ray ray, HitRecord hit);
+
+    /**
+     * Calculate the transparency of the geometry along a ray (used for shadow rays), i.e. the product of the
+     * transparency coefficients of all the intersections of the ray with the geometry.
+     * The calculation stops as soon as the ray is blocked, without building the list of the intersections.
+     *
+     * @param ray         the ray to calculate the transparency along
+     * @param maxDistance the maximum distance to find the intersections in
+     * @param ktr         the transparency accumulated so far
+     * @param minKtr      the transparency under which the ray is considered blocked
+     * @return the accumulated transparency, or {@link Double3#ZERO} if the ray is blocked
+     */
+    public final Double3 calcTransparency(Ray ray, double maxDistance, Double3 ktr, double minKtr) {
+        if (boundingBox != null && boundingBox.intersect(ray, maxDistance) == Double.POSITIVE_INFINITY)
+            return ktr;
+        return calcTransparencyHelper(ray, maxDistance, ktr, minKtr);
+    }
+
+    /**
+     * A helper method to calculate the transparency of the geometry along a ray
+     *
+     * @param ray         the ray to calculate the transparency along
+     * @param maxDistance the maximum distance to find the intersections in
+     * @param ktr         the transparency accumulated so far
+     * @param minKtr      the transparency under which the ray is considered blocked
+     * @return the accumulated transparency, or {@link Double3#ZERO} if the ray is blocked
+     */
+    protected abstract Double3 calcTransparencyHelper(Ray ray, double maxDistance, Double3 ktr, double minKtr);
+
     /**
      * A helper method to find the intersections of a ray with the geometry
      *
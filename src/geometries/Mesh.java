@@ -0,0 +1,284 @@
+package geometries;
+
+import primitives.*;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Class to represent an indexed triangle mesh.<br/>
+ * The vertices are stored in one flat array, and every face is 3 indices into it, so vertices are shared between
+ * the faces and a face costs a few bytes instead of a full {@link Triangle} object. Every face has an index of its
+ * surface (material and emission). The faces are intersected through a BVH that is built over the faces themselves.
+ */
+public class Mesh extends Intersectable {
+    /**
+     * The coordinates of the vertices, 3 values per vertex: x, y, z
+     */
+    private final double[] vertices;
+    /**
+     * The indices of the vertices of the faces, 3 values per face,
+     * ordered so every leaf of the hierarchy holds a continuous range of faces
+     */
+    private final int[] faces;
+    /**
+     * The index of the surface of every face (in the same order as the faces)
+     */
+    private final int[] faceSurfaces;
+    /**
+     * The materials of the surfaces
+     */
+    private final Material[] materials;
+    /**
+     * The emission colors of the surfaces
+     */
+    private final Color[] emissions;
+    /**
+     * The geometries of the faces, created only for faces that were hit
+     */
+    private final AtomicReferenceArray<Face> faceGeometries;
+    /**
+     * The hierarchy over the faces
+     */
+    private final BVHNodes nodes;
+
+    /**
+     * Constructor for a mesh with a single surface
+     *
+     * @param vertices the coordinates of the vertices, 3 values per vertex: x, y, z
+     * @param faces    the indices of the vertices of the faces, 3 values per face
+     * @param material the material of the mesh
+     * @param emission the emission color of the mesh
+     */
+    public Mesh(double[] vertices, int[] faces, Material material, Color emission) {
+        this(vertices, faces, new int[faces.length / 3], new Material[]{material}, new Color[]{emission});
+    }
+
+    /**
+     * Constructor for the mesh
+     *
+     * @param vertices     the coordinates of the vertices, 3 values per vertex: x, y, z
+     * @param faces        the indices of the vertices of the faces, 3 values per face
+     * @param faceSurfaces the index of the surface of every face
+     * @param materials    the materials of the surfaces
+     * @param emissions    the emission colors of the surfaces
+     */
+    public Mesh(double[] vertices, int[] faces, int[] faceSurfaces, Material[] materials, Color[] emissions) {
+        if (vertices.length % 3 != 0)
+            throw new IllegalArgumentException("Every vertex must have 3 coordinates");
+        if (faces.length % 3 != 0)
+            throw new IllegalArgumentException("Every face must have 3 vertices");
+        int facesCount = faces.length / 3;
+        if (faceSurfaces.length != facesCount)
+            throw new IllegalArgumentException("Every face must have a surface");
+        if (materials.length != emissions.length)
+            throw new IllegalArgumentException("Every surface must have a material and an emission");
+        for (int v : faces)
+            if (v < 0 || v >= vertices.length / 3)
+                throw new IllegalArgumentException("Face index out of the vertices range");
+        for (int s : faceSurfaces)
+            if (s < 0 || s >= materials.length)
+                throw new IllegalArgumentException("Surface index out of the surfaces range");
+
+        this.vertices = vertices;
+        this.materials = materials;
+        this.emissions = emissions;
+
+        // build the hierarchy over the bounds of the faces
+        double[] facesBounds = new double[facesCount * 6];
+        for (int f = 0; f < facesCount; f++)
+            for (int axis = 0; axis < 3; axis++) {
+                double a = vertices[faces[f * 3] * 3 + axis];
+                double b = vertices[faces[f * 3 + 1] * 3 + axis];
+                double c = vertices[faces[f * 3 + 2] * 3 + axis];
+                facesBounds[f * 6 + axis] = Math.min(a, Math.min(b, c));
+                facesBounds[f * 6 + axis + 3] = Math.max(a, Math.max(b, c));
+            }
+        BVHBuilder builder = new BVHBuilder(facesBounds, BVHBuilder.DEFAULT_LEAF_SIZE);
+        nodes = new BVHNodes(builder.build());
+
+        // order the faces by the leaves of the hierarchy
+        int[] indices = builder.getIndices();
+        this.faces = new int[faces.length];
+        this.faceSurfaces = new int[facesCount];
+        for (int f = 0; f < facesCount; f++) {
+            System.arraycopy(faces, indices[f] * 3, this.faces, f * 3, 3);
+            this.faceSurfaces[f] = faceSurfaces[indices[f]];
+        }
+        faceGeometries = new AtomicReferenceArray<>(facesCount);
+        boundingBox = nodes.getBoundingBox(0);
+    }
+
+    /**
+     * Get the amount of the faces
+     *
+     * @return the amount of the faces
+     */
+    public int getFacesCount() {
+        return faceSurfaces.length;
+    }
+
+    @Override
+    public void calcBoundingBox() {
+        boundingBox = nodes.getBoundingBox(0);
+    }
+
+    /**
+     * Get the geometry of a face (it is created the first time the face is hit). Threads that hit a new face
+     * together get the same geometry, so the identity of the geometry of a hit doesn't depend on the thread.
+     *
+     * @param face the index of the face
+     * @return the geometry of the face
+     */
+    private Face getFace(int face) {
+        Face geometry = faceGeometries.get(face);
+        if (geometry != null) return geometry;
+        geometry = new Face(face);
+        return faceGeometries.compareAndSet(face, null, geometry) ? geometry : faceGeometries.get(face);
+    }
+
+    /**
+     * Find the distance from the head of a ray to its intersection with a face
+     * (see {@link Triangle#intersect(double, double, double, double, double, double, double, double, double, Ray,
+     * double, HitRecord, Geometry, int)})
+     *
+     * @param face        the index of the face
+     * @param ray         the ray to find the intersection with
+     * @param maxDistance the maximum distance to find the intersection in
+     * @param hit         record to update with the intersection, may be null
+     * @return the distance to the intersection, or positive infinity if there is none
+     */
+    private double intersectFace(int face, Ray ray, double maxDistance, HitRecord hit) {
+        int a = faces[face * 3] * 3, b = faces[face * 3 + 1] * 3, c = faces[face * 3 + 2] * 3;
+        double ax = vertices[a], ay = vertices[a + 1], az = vertices[a + 2];
+        return Triangle.intersect(ax, ay, az,
+                vertices[b] - ax, vertices[b + 1] - ay, vertices[b + 2] - az,
+                vertices[c] - ax, vertices[c + 1] - ay, vertices[c + 2] - az,
+                ray, maxDistance, hit, hit == null ? null : getFace(face), face);
+    }
+
+    @Override
+    protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance) {
+        if (nodes.isEmpty()) return null;
+        List<GeoPoint> intersections = new LinkedList<>();
+        nodes.traverse(0, ray, maxDistance, (offset, count) -> {
+            for (int f = offset; f < offset + count; f++) {
+                double t = intersectFace(f, ray, maxDistance, null);
+                if (t != Double.POSITIVE_INFINITY) intersections.add(new GeoPoint(getFace(f), ray.getPoint(t)));
+            }
+            return true;
+        });
+        return intersections.isEmpty() ? null : intersections;
+    }
+
+    @Override
+    protected boolean findClosestHitHelper(Ray ray, HitRecord hit) {
+        if (nodes.isEmpty()) return false;
+        int[] closest = {-1};
+        nodes.findClosest(0, ray, hit.t, (offset, count, maxDistance) -> {
+            for (int f = offset; f < offset + count; f++) {
+                double t = intersectFace(f, ray, maxDistance, null);
+                if (t != Double.POSITIVE_INFINITY) {
+                    closest[0] = f;
+                    maxDistance = t;
+                }
+            }
+            return maxDistance;
+        });
+        if (closest[0] == -1) return false;
+        // only the final hit needs the face and the barycentric coordinates
+        intersectFace(closest[0], ray, hit.t, hit);
+        return true;
+    }
+
+    @Override
+    protected Double3 calcTransparencyHelper(Ray ray, double maxDistance, Double3 ktr, double minKtr) {
+        if (nodes.isEmpty()) return ktr;
+        Double3[] result = {ktr};
+        boolean passed = nodes.traverse(0, ray, maxDistance, (offset, count) -> {
+            for (int f = offset; f < offset + count; f++) {
+                if (intersectFace(f, ray, maxDistance, null) == Double.POSITIVE_INFINITY) continue;
+                result[0] = result[0].product(materials[faceSurfaces[f]].kT);
+                if (result[0].lowerThan(minKtr)) // the ray is blocked, no need to continue the traversal
+                    return false;
+            }
+            return true;
+        });
+        return passed ? result[0] : Double3.ZERO;
+    }
+
+    /**
+     * A single face of the mesh, as a geometry (used for shading the intersections with the mesh)
+     */
+    private final class Face extends Geometry {
+        /**
+         * The index of the face
+         */
+        private final int face;
+        /**
+         * The normal to the face
+         */
+        private final Vector normal;
+
+        /**
+         * Constructor for the face
+         *
+         * @param face the index of the face
+         */
+        Face(int face) {
+            this.face = face;
+            Point a = getVertex(0), b = getVertex(1), c = getVertex(2);
+            normal = b.subtract(a).crossProduct(c.subtract(a)).normalize();
+        }
+
+        /**
+         * Get a vertex of the face
+         *
+         * @param vertex the index of the vertex in the face (0, 1 or 2)
+         * @return the vertex
+         */
+        private Point getVertex(int vertex) {
+            int v = faces[face * 3 + vertex] * 3;
+            return new Point(vertices[v], vertices[v + 1], vertices[v + 2]);
+        }
+
+        @Override
+        public Color getEmission() {
+            return emissions[faceSurfaces[face]];
+        }
+
+        @Override
+        public Material getMaterial() {
+            return materials[faceSurfaces[face]];
+        }
+
+        @Override
+        public Vector getNormal(Point p) {
+            return normal;
+        }
+
+        @Override
+        protected double findClosestDistance(Ray ray, double maxDistance) {
+            return intersectFace(face, ray, maxDistance, null);
+        }
+
+        @Override
+        protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance) {
+            double t = findClosestDistance(ray, maxDistance);
+            return t == Double.POSITIVE_INFINITY ? null : List.of(new GeoPoint(this, ray.getPoint(t)));
+        }
+
+        @Override
+        public void calcBoundingBox() {
+            Point a = getVertex(0), b = getVertex(1), c = getVertex(2);
+            boundingBox = new BoundingBox(
+                    new Point(Math.min(a.getX(), Math.min(b.getX(), c.getX())),
+                            Math.min(a.getY(), Math.min(b.getY(), c.getY())),
+                            Math.min(a.getZ(), Math.min(b.getZ(), c.getZ()))),
+                    new Point(Math.max(a.getX(), Math.max(b.getX(), c.getX())),
+                            Math.max(a.getY(), Math.max(b.getY(), c.getY())),
+                            Math.max(a.getZ(), Math.max(b.getZ(), c.getZ()))));
+        }
+    }
+}
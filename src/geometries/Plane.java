@@ -75,19 +75,31 @@ public class Plane extends Geometry {
     public void calcBoundingBox() {
     }
 
+    @Override
+    public Intersectable cull(Frustum frustum) {
+        return frustum.intersects(q, normal) ? this : null;
+    }
+
     @Override
     protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance) {
+        double t = findClosestDistance(ray, maxDistance);
+        return t == Double.POSITIVE_INFINITY ? null : List.of(new GeoPoint(this, ray.getPoint(t)));
+    }
+
+    @Override
+    protected double findClosestDistance(Ray ray, double maxDistance) {
         Point p0 = ray.getHead();
         Vector v = ray.getDirection();
 
-        double nv = normal.dotProduct(v);
+        double nx = normal.getX(), ny = normal.getY(), nz = normal.getZ();
+
+        double nv = nx * v.getX() + ny * v.getY() + nz * v.getZ();
         if (Util.isZero(nv) || q.equals(p0))
-            return null;
+            return Double.POSITIVE_INFINITY;
 
-        double t = alignZero(normal.dotProduct(q.subtract(p0)) / nv);
-        return (t <= 0 || alignZero(maxDistance - t) <= 0)
-                ? null
-                : List.of(new GeoPoint(this, ray.getPoint(t)));
+        double t = alignZero(((q.getX() - p0.getX()) * nx + (q.getY() - p0.getY()) * ny
+                + (q.getZ() - p0.getZ()) * nz) / nv);
+        return (t <= 0 || alignZero(maxDistance - t) <= 0) ? Double.POSITIVE_INFINITY : t;
     }
 
     /**
@@ -2,11 +2,11 @@ package geometries;
 
 import primitives.Point;
 import primitives.Ray;
-import primitives.Util;
 import primitives.Vector;
 
 import java.util.List;
 
+import static primitives.Util.alignZero;
 import static primitives.Util.isZero;
 
 /**
@@ -28,6 +28,13 @@ public class Polygon extends Geometry {
      * The size of the polygon - the amount of the vertices in the polygon
      */
     private final int size;
+    /**
+     * The planes of the edges, 4 values per edge: the normal of the edge plane (it lays in the polygon's plane,
+     * perpendicular to the edge and directed into the polygon) and the offset of the edge plane.
+     * A point of the polygon's plane is inside the polygon if it is in the positive side of all the edge planes.
+     * Null if the subclass finds the intersections by itself.
+     */
+    private final double[] edgePlanes;
 
     /**
      * Polygon constructor based on vertices list. The list must be ordered by edge
@@ -52,10 +59,22 @@ public class Polygon extends Geometry {
      *                                  </ul>
      */
     public Polygon(Point... vertices) {
+        this(true, vertices);
+    }
+
+    /**
+     * Polygon constructor for subclasses that find the intersections by themselves
+     * (see {@link #Polygon(Point...)})
+     *
+     * @param withEdgePlanes true to prepare the edge planes for finding the intersections, false to skip them
+     * @param vertices       list of vertices according to their order by edge path
+     */
+    protected Polygon(boolean withEdgePlanes, Point... vertices) {
         if (vertices.length == 0) { // default constructor
             this.vertices = null;
             plane = null;
             size = 0;
+            edgePlanes = null;
             return;
         }
 
@@ -68,9 +87,10 @@ public class Polygon extends Geometry {
         // polygon with this plane.
         // The plane holds the invariant normal (orthogonal unit) vector to the polygon
         plane = new Plane(vertices[0], vertices[1], vertices[2]);
+        Vector n = plane.getNormal();
+        edgePlanes = withEdgePlanes ? calcEdgePlanes(vertices, n) : null;
         if (size == 3) return; // no need for more tests for a Triangle
 
-        Vector n = plane.getNormal();
         // Subtracting any subsequent points will throw an IllegalArgumentException
         // because of Zero Vector if they are in the same point
         Vector edge1 = vertices[vertices.length - 1].subtract(vertices[vertices.length - 2]);
@@ -96,6 +116,31 @@ public class Polygon extends Geometry {
         }
     }
 
+    /**
+     * Calculate the planes of the edges of a convex polygon (see {@link #edgePlanes})
+     *
+     * @param vertices the vertices of the polygon
+     * @param n        the normal of the polygon
+     * @return the planes of the edges, 4 values per edge
+     */
+    private static double[] calcEdgePlanes(Point[] vertices, Vector n) {
+        int size = vertices.length;
+        double[] edgePlanes = new double[size * 4];
+        for (int i = 0; i < size; i++) {
+            Point p = vertices[i];
+            Vector edgeNormal = n.crossProduct(vertices[(i + 1) % size].subtract(p)).normalize();
+            // the polygon is convex, so any other vertex is in the inner side of the edge
+            if (edgeNormal.dotProduct(vertices[(i + 2) % size].subtract(p)) < 0)
+                edgeNormal = edgeNormal.scale(-1);
+            edgePlanes[i * 4] = edgeNormal.getX();
+            edgePlanes[i * 4 + 1] = edgeNormal.getY();
+            edgePlanes[i * 4 + 2] = edgeNormal.getZ();
+            edgePlanes[i * 4 + 3] =
+                    edgeNormal.getX() * p.getX() + edgeNormal.getY() * p.getY() + edgeNormal.getZ() * p.getZ();
+        }
+        return edgePlanes;
+    }
+
     @Override
     public void calcBoundingBox() {
         double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY, minZ = Double.POSITIVE_INFINITY;
@@ -122,40 +167,26 @@ public class Polygon extends Geometry {
 
     @Override
     protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance) {
-        var intersectionPoint = plane.findGeoIntersections(ray, maxDistance);
-        // the intersection point with the plane. we know it can be 1 or 0
-        if (intersectionPoint == null) return null;
-
-        // check if the intersection point is a vertex of the polygon
-        for (Point v : vertices) {
-            if (v.equals(intersectionPoint.getFirst().point))
-                return null;
-        }
+        double t = findClosestDistance(ray, maxDistance);
+        return t == Double.POSITIVE_INFINITY ? null : List.of(new GeoPoint(this, ray.getPoint(t)));
+    }
+
+    @Override
+    protected double findClosestDistance(Ray ray, double maxDistance) {
+        // the distance to the intersection point with the plane. we know there can be 1 or 0 points
+        double t = plane.findClosestDistance(ray, maxDistance);
+        if (t == Double.POSITIVE_INFINITY) return t;
 
         Point p0 = ray.getHead();
         Vector v = ray.getDirection();
-
-        Vector[] vectors = new Vector[size];
-        Vector[] normals = new Vector[size];
-
-        for (int i = 0; i < size; i++) { // calculate the vectors from the intersection point to the vertices
-            vectors[i] = vertices.get(i).subtract(p0);
-        }
-        for (int i = 0; i < size; i++) { // calculate the normal vectors to the polygon
-            normals[i] = vectors[i].crossProduct(vectors[(i + 1) % size]).normalize();
-        }
-
-        // in the next code we check if the intersection point is in the polygon. we do it
-        // by checking if the intersection point is in the same direction of the normal vectors
-        // i.e. the dot product of the direction vector and the normal vector is positive
-        double sign = v.dotProduct(normals[0]);
-        for (Vector n : normals) {
-            if (!Util.compareSign(sign, n.dotProduct(v)))
-                return null;
-        }
-
-        intersectionPoint.getFirst().geometry = this;
-        return intersectionPoint;
+        double x = p0.getX() + t * v.getX(), y = p0.getY() + t * v.getY(), z = p0.getZ() + t * v.getZ();
+
+        // the intersection point is in the polygon if it is strictly inside all the edge planes
+        // (points on the edges and the vertices are not intersections)
+        for (int i = 0; i < edgePlanes.length; i += 4)
+            if (alignZero(edgePlanes[i] * x + edgePlanes[i + 1] * y + edgePlanes[i + 2] * z - edgePlanes[i + 3]) <= 0)
+                return Double.POSITIVE_INFINITY;
+        return t;
     }
 
     /**
@@ -0,0 +1,132 @@
+package geometries;
+
+import primitives.Point;
+import primitives.Ray;
+
+/**
+ * A packet of coherent rays (e.g. neighbouring primary rays of a tile) that traverses a BVH together.<br/>
+ * The rays are unpacked into flat arrays - one lane per ray - so a box of a node is tested against all the lanes
+ * of the packet in a single loop, and the lanes that are still active in a sub-tree are kept as a bit mask.
+ */
+final class RayPacket {
+    /**
+     * The maximal amount of the rays in a packet
+     */
+    static final int SIZE = 8;
+
+    /**
+     * The amount of the rays in the packet
+     */
+    int size;
+    /**
+     * The rays
+     */
+    final Ray[] rays = new Ray[SIZE];
+    /**
+     * The records of the closest intersections of the rays
+     */
+    final HitRecord[] hits = new HitRecord[SIZE];
+    /**
+     * The coordinates of the heads of the rays
+     */
+    private final double[] headX = new double[SIZE], headY = new double[SIZE], headZ = new double[SIZE];
+    /**
+     * The inverse directions of the rays
+     */
+    private final double[] invX = new double[SIZE], invY = new double[SIZE], invZ = new double[SIZE];
+    /**
+     * The signs of the directions of the rays
+     */
+    private final boolean[] negX = new boolean[SIZE], negY = new boolean[SIZE], negZ = new boolean[SIZE];
+
+    /**
+     * Load rays into the packet
+     *
+     * @param rays  the rays
+     * @param hits  the records of the closest intersections of the rays
+     * @param start the index of the first ray to load
+     * @param count the amount of the rays to load (up to {@link #SIZE})
+     */
+    void load(Ray[] rays, HitRecord[] hits, int start, int count) {
+        size = count;
+        for (int i = 0; i < count; i++) {
+            Ray ray = rays[start + i];
+            Point head = ray.getHead();
+            this.rays[i] = ray;
+            this.hits[i] = hits[start + i];
+            headX[i] = head.getX();
+            headY[i] = head.getY();
+            headZ[i] = head.getZ();
+            invX[i] = ray.getInvDirX();
+            invY[i] = ray.getInvDirY();
+            invZ[i] = ray.getInvDirZ();
+            negX[i] = ray.isNegative(0);
+            negY[i] = ray.isNegative(1);
+            negZ[i] = ray.isNegative(2);
+        }
+    }
+
+    /**
+     * Get the mask of all the rays of the packet
+     *
+     * @return the mask with a bit for every ray
+     */
+    int fullMask() {
+        return (1 << size) - 1;
+    }
+
+    /**
+     * Check the sign of the direction of a ray along an axis
+     *
+     * @param lane the index of the ray in the packet
+     * @param axis the axis (0 - x, 1 - y, 2 - z)
+     * @return true if the direction is negative along the axis, false otherwise
+     */
+    boolean isNegative(int lane, int axis) {
+        return switch (axis) {
+            case 0 -> negX[lane];
+            case 1 -> negY[lane];
+            default -> negZ[lane];
+        };
+    }
+
+    /**
+     * Intersect the rays of the packet with the bounds of a node (the slab test of
+     * {@link BoundingBox#intersect(double, double, double, double, double, double, Ray, double)}, within the
+     * distance of the closest intersection of every ray)
+     *
+     * @param nodes the nodes of the hierarchy
+     * @param node  the index of the node
+     * @param mask  the rays to intersect
+     * @return the mask of the rays that hit the node
+     */
+    int intersect(BVHNodes nodes, int node, int mask) {
+        double[] bounds = nodes.bounds;
+        int o = node * 6;
+        double minX = bounds[o], minY = bounds[o + 1], minZ = bounds[o + 2];
+        double maxX = bounds[o + 3], maxY = bounds[o + 4], maxZ = bounds[o + 5];
+        int result = 0;
+        for (int i = 0; i < size; i++) {
+            if ((mask & (1 << i)) == 0) continue;
+            double tNear = 0, tFar = hits[i].t;
+
+            double t1 = ((negX[i] ? maxX : minX) - headX[i]) * invX[i];
+            double t2 = ((negX[i] ? minX : maxX) - headX[i]) * invX[i];
+            if (t1 > tNear) tNear = t1; // NaN (the ray is parallel to the slab and on its border) is ignored
+            if (t2 < tFar) tFar = t2;
+
+            t1 = ((negY[i] ? maxY : minY) - headY[i]) * invY[i];
+            t2 = ((negY[i] ? minY : maxY) - headY[i]) * invY[i];
+            if (t1 > tNear) tNear = t1;
+            if (t2 < tFar) tFar = t2;
+
+            t1 = ((negZ[i] ? maxZ : minZ) - headZ[i]) * invZ[i];
+            t2 = ((negZ[i] ? minZ : maxZ) - headZ[i]) * invZ[i];
+            if (t1 > tNear) tNear = t1;
+            if (t2 < tFar) tFar = t2;
+
+            if (tNear <= tFar) result |= 1 << i;
+        }
+        return result;
+    }
+}
@@ -81,6 +81,27 @@ public class Sphere extends RadialGeometry {
                     : List.of(new GeoPoint(this, ray.getPoint(t1)), new GeoPoint(this, ray.getPoint(t2)));
     }
 
+    @Override
+    protected double findClosestDistance(Ray ray, double maxDistance) {
+        Point p0 = ray.getHead();
+        if (center.equals(p0))
+            return alignZero(maxDistance - radius) <= 0 ? Double.POSITIVE_INFINITY : radius;
+
+        Vector v = ray.getDirection();
+        double ux = center.getX() - p0.getX(), uy = center.getY() - p0.getY(), uz = center.getZ() - p0.getZ();
+        double tm = ux * v.getX() + uy * v.getY() + uz * v.getZ();
+        double dSquared = ux * ux + uy * uy + uz * uz - tm * tm;
+        double thSquared = radiusSquared - dSquared;
+        if (alignZero(thSquared) <= 0) // if d >= radius
+            return Double.POSITIVE_INFINITY; // no intersections
+
+        double th = Math.sqrt(thSquared);
+        double t = alignZero(tm - th);
+        if (t <= 0) // the head of the ray is inside the sphere, so the closest intersection is the far one
+            t = alignZero(tm + th);
+        return t <= 0 || alignZero(maxDistance - t) <= 0 ? Double.POSITIVE_INFINITY : t;
+    }
+
     /**
      * Getter for the center
      *
@@ -4,9 +4,8 @@ import primitives.Point;
 import primitives.Ray;
 import primitives.Vector;
 
-import java.util.List;
-
 import static primitives.Util.alignZero;
+import static primitives.Util.isZero;
 
 /**
  * Class to present a radial geometry
@@ -14,6 +13,19 @@ import static primitives.Util.alignZero;
  * @author Ariel and Asaf
  */
 public class Triangle extends Polygon {
+    /**
+     * The coordinates of the first vertex
+     */
+    private final double ax, ay, az;
+    /**
+     * The edge from the first vertex to the second one
+     */
+    private final double e1x, e1y, e1z;
+    /**
+     * The edge from the first vertex to the third one
+     */
+    private final double e2x, e2y, e2z;
+
     /**
      * Constructor for Triangle - saves 3 points on the triangle
      *
@@ -22,42 +34,84 @@ public class Triangle extends Polygon {
      * @param p3 point on the triangle
      */
     public Triangle(Point p1, Point p2, Point p3) {
-        super(p1, p2, p3);
+        // the intersections are found by the edges, without the edge planes of the polygon
+        super(false, p1, p2, p3);
+        ax = p1.getX();
+        ay = p1.getY();
+        az = p1.getZ();
+        e1x = p2.getX() - ax;
+        e1y = p2.getY() - ay;
+        e1z = p2.getZ() - az;
+        e2x = p3.getX() - ax;
+        e2y = p3.getY() - ay;
+        e2z = p3.getZ() - az;
     }
 
     /**
      * Default constructor
      */
     private Triangle() {
+        ax = ay = az = e1x = e1y = e1z = e2x = e2y = e2z = 0;
+    }
+
+    @Override
+    protected double findClosestDistance(Ray ray, double maxDistance) {
+        return intersect(ax, ay, az, e1x, e1y, e1z, e2x, e2y, e2z, ray, maxDistance, null, null, -1);
     }
 
     @Override
-    protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance) {
-        var intersection = plane.findGeoIntersections(ray, maxDistance);
-        if (intersection == null)
-            return null;
-
-        Point p0 = ray.getHead();
-        Vector v = ray.getDirection();
-
-        Point p1 = vertices.getFirst();
-        Point p2 = vertices.get(1);
-        Vector v1 = p1.subtract(p0);
-        Vector v2 = p2.subtract(p0);
-        Vector n1 = v1.crossProduct(v2).normalize();
-        double s1 = alignZero(n1.dotProduct(v));
-        if (s1 == 0) return null;
-
-        Point p3 = vertices.getLast();
-        Vector v3 = p3.subtract(p0);
-        Vector n2 = v2.crossProduct(v3).normalize();
-        double s2 = alignZero(n2.dotProduct(v));
-        if (s1 * s2 <= 0) return null;
-
-        Vector n3 = v3.crossProduct(v1).normalize();
-        double s3 = alignZero(n3.dotProduct(v));
-        if (s1 * s3 <= 0) return null;
-
-        return List.of(new GeoPoint(this, intersection.getFirst().point)); // we know there is only one intersection point
+    protected boolean findClosestHitHelper(Ray ray, HitRecord hit) {
+        return intersect(ax, ay, az, e1x, e1y, e1z, e2x, e2y, e2z, ray, hit.t, hit, this, -1)
+                != Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Find the distance from the head of a ray to its intersection with a triangle (Möller–Trumbore algorithm).
+     * Points on the edges of the triangle are not considered intersections.
+     *
+     * @param ax          the x coordinate of the first vertex
+     * @param ay          the y coordinate of the first vertex
+     * @param az          the z coordinate of the first vertex
+     * @param e1x         the x coordinate of the edge from the first vertex to the second one
+     * @param e1y         the y coordinate of the edge from the first vertex to the second one
+     * @param e1z         the z coordinate of the edge from the first vertex to the second one
+     * @param e2x         the x coordinate of the edge from the first vertex to the third one
+     * @param e2y         the y coordinate of the edge from the first vertex to the third one
+     * @param e2z         the z coordinate of the edge from the first vertex to the third one
+     * @param ray         the ray to find the intersection with
+     * @param maxDistance the maximum distance to find the intersection in
+     * @param hit         record to update with the intersection and its barycentric coordinates, may be null
+     * @param geometry    the geometry to put in the record
+     * @param index       the primitive index to put in the record
+     * @return the distance to the intersection, or positive infinity if there is none
+     */
+    static double intersect(double ax, double ay, double az,
+                            double e1x, double e1y, double e1z,
+                            double e2x, double e2y, double e2z,
+                            Ray ray, double maxDistance, HitRecord hit, Geometry geometry, int index) {
+        Vector direction = ray.getDirection();
+        double dx = direction.getX(), dy = direction.getY(), dz = direction.getZ();
+
+        // p = d x e2
+        double px = dy * e2z - dz * e2y, py = dz * e2x - dx * e2z, pz = dx * e2y - dy * e2x;
+        double det = e1x * px + e1y * py + e1z * pz;
+        if (isZero(det)) return Double.POSITIVE_INFINITY; // the ray is parallel to the triangle
+        double invDet = 1 / det;
+
+        Point head = ray.getHead();
+        double sx = head.getX() - ax, sy = head.getY() - ay, sz = head.getZ() - az;
+        double u = (sx * px + sy * py + sz * pz) * invDet;
+        if (alignZero(u) <= 0 || alignZero(u - 1) >= 0) return Double.POSITIVE_INFINITY;
+
+        // q = s x e1
+        double qx = sy * e1z - sz * e1y, qy = sz * e1x - sx * e1z, qz = sx * e1y - sy * e1x;
+        double v = (dx * qx + dy * qy + dz * qz) * invDet;
+        if (alignZero(v) <= 0 || alignZero(u + v - 1) >= 0) return Double.POSITIVE_INFINITY;
+
+        double t = alignZero((e2x * qx + e2y * qy + e2z * qz) * invDet);
+        if (t <= 0 || alignZero(maxDistance - t) <= 0) return Double.POSITIVE_INFINITY;
+
+        if (hit != null) hit.update(t, geometry, index, u, v);
+        return t;
     }
-}
\ No newline at end of file
+}
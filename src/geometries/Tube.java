@@ -43,6 +43,44 @@ public class Tube extends RadialGeometry {
 
     @Override
     protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance) {
+        double[] distances = findDistances(ray);
+        if (distances == null)
+            return null;
+
+        double t1 = distances[1];
+        double t2 = distances[0];
+        // an intersection at the max distance is out of range, as in the other geometries
+        boolean t1InRange = t1 > 0 && alignZero(maxDistance - t1) > 0;
+        boolean t2InRange = t2 > 0 && alignZero(maxDistance - t2) > 0;
+
+        if (t1InRange && t2InRange)
+            return List.of(new GeoPoint(this, ray.getPoint(t2)), new GeoPoint(this, ray.getPoint(t1)));
+        if (t1InRange)
+            return List.of(new GeoPoint(this, ray.getPoint(t1)));
+        if (t2InRange)
+            return List.of(new GeoPoint(this, ray.getPoint(t2)));
+        return null;
+    }
+
+    @Override
+    protected double findClosestDistance(Ray ray, double maxDistance) {
+        double[] distances = findDistances(ray);
+        if (distances == null)
+            return Double.POSITIVE_INFINITY;
+
+        for (double t : distances) // the distances are sorted, so the first one in range is the closest
+            if (t > 0 && alignZero(maxDistance - t) > 0)
+                return t;
+        return Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Find the distances from the head of a ray to the intersections of its line with the tube
+     *
+     * @param ray the ray to find the intersections with
+     * @return the two distances in ascending order (may be negative), or null if the line doesn't cross the tube
+     */
+    double[] findDistances(Ray ray) {
         // based on https://github.com/sheinakorem/ISE5783_8715_6534/blob/master/src/geometries/Tube.java
 
         Point rayHead = ray.getHead();
@@ -88,17 +126,6 @@ public class Tube extends RadialGeometry {
         double a2 = 2 * a;
         double tm = -b / a2;
         double th = Math.sqrt(discriminant) / a2;
-        double t1 = alignZero(tm + th);
-        double t2 = alignZero(tm - th);
-        double t1MinDis = alignZero(t1 - maxDistance);
-        double t2MinDis = alignZero(t2 - maxDistance);
-
-        if (t1 > 0 && t2 > 0 && t1MinDis <= 0 && t2MinDis <= 0)
-            return List.of(new GeoPoint(this, ray.getPoint(t2)), new GeoPoint(this, ray.getPoint(t1)));
-        if (t1 > 0 && t1MinDis <= 0)
-            return List.of(new GeoPoint(this, ray.getPoint(t1)));
-        if (t2 > 0 && t2MinDis <= 0)
-            return List.of(new GeoPoint(this, ray.getPoint(t2)));
-        return null;
+        return new double[]{alignZero(tm - th), alignZero(tm + th)};
     }
 }
\ No newline at end of file
@@ -23,6 +23,14 @@ public class Ray {
      * The direction of the ray
      */
     private final Vector direction;
+    /**
+     * The inverse of the direction components (used for intersecting boxes without divisions)
+     */
+    private final double invDirX, invDirY, invDirZ;
+    /**
+     * Bit mask of the axes the direction is negative along (bit 0 - X, bit 1 - Y, bit 2 - Z)
+     */
+    private final int negativeAxes;
 
     /**
      * constructor for ray - saves the head and the direction
@@ -33,6 +41,10 @@ public class Ray {
     public Ray(Point head, Vector vec) {
         this.head = head;
         this.direction = vec.normalize();
+        invDirX = 1 / direction.getX();
+        invDirY = 1 / direction.getY();
+        invDirZ = 1 / direction.getZ();
+        negativeAxes = (invDirX < 0 ? 1 : 0) | (invDirY < 0 ? 2 : 0) | (invDirZ < 0 ? 4 : 0);
     }
 
     /**
@@ -46,6 +58,10 @@ public class Ray {
         double dotProduct = direction.dotProduct(normal);
         this.head = p0.add(normal.scale(dotProduct > 0 ? DELTA : -DELTA));
         this.direction = direction.normalize();
+        invDirX = 1 / this.direction.getX();
+        invDirY = 1 / this.direction.getY();
+        invDirZ = 1 / this.direction.getZ();
+        negativeAxes = (invDirX < 0 ? 1 : 0) | (invDirY < 0 ? 2 : 0) | (invDirZ < 0 ? 4 : 0);
     }
 
     /**
@@ -80,6 +96,43 @@ public class Ray {
         return direction;
     }
 
+    /**
+     * getter for the inverse of the x component of the direction
+     *
+     * @return 1 / direction.x (infinity if the direction is perpendicular to the X axis)
+     */
+    public double getInvDirX() {
+        return invDirX;
+    }
+
+    /**
+     * getter for the inverse of the y component of the direction
+     *
+     * @return 1 / direction.y (infinity if the direction is perpendicular to the Y axis)
+     */
+    public double getInvDirY() {
+        return invDirY;
+    }
+
+    /**
+     * getter for the inverse of the z component of the direction
+     *
+     * @return 1 / direction.z (infinity if the direction is perpendicular to the Z axis)
+     */
+    public double getInvDirZ() {
+        return invDirZ;
+    }
+
+    /**
+     * Check if the direction of the ray is negative along an axis
+     *
+     * @param axis the axis (0 - X, 1 - Y, 2 - Z)
+     * @return true if the direction is negative, false otherwise
+     */
+    public boolean isNegative(int axis) {
+        return (negativeAxes & (1 << axis)) != 0;
+    }
+
     /**
      * find the closest point to the head of the ray
      *
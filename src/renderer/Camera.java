@@ -5,8 +5,16 @@ import primitives.Point;
 import primitives.Ray;
 import primitives.Vector;
 
-import java.util.LinkedList;
+import java.io.Serial;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
 import java.util.MissingResourceException;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 
 /**
@@ -32,12 +40,63 @@ public class Camera implements Cloneable {
      * <li>debug print of progress percentage in Console window/tab</li>
      * </ul>
      */
-    private PixelManager pixelManager;
+    private volatile PixelManager pixelManager;
+
+    /**
+     * The executors shared by all the cameras that were not given their own executor, by their parallelism
+     * (created on the first rendering with a parallelism, and again after they are shut down)
+     */
+    private static final Map<Integer, ForkJoinPool> sharedExecutors = new HashMap<>();
+    /**
+     * The amount of the renderings that use every pool of the cameras - a shared executor that is shut down while
+     * renderings use it is terminated only after the last of them is finished
+     */
+    private static final Map<ForkJoinPool, Integer> poolRenderings = new IdentityHashMap<>();
 
     /**
      * Number of threads to use for rendering
      */
-    private int threadsCount = 4;
+    private int threadsCount = Runtime.getRuntime().availableProcessors();
+    /**
+     * The executor that runs the rendering threads, null for the shared executor
+     */
+    private ExecutorService executor;
+    /**
+     * The size of the side of the tiles the image is rendered in
+     */
+    private int tileSize = PixelManager.DEFAULT_TILE_SIZE;
+    /**
+     * The progress interval (in percents) between the debug prints, 0 for no debug print
+     */
+    private double printInterval = 0;
+    /**
+     * Whether to render in a work-stealing fork/join pool (instead of threads that take tiles in order)
+     */
+    private boolean workStealing = false;
+    /**
+     * The spacing (in pixels) between the probe rays of the cost estimation pre-pass, 0 for no pre-pass
+     */
+    private int probeSpacing = 0;
+    /**
+     * The maximum depth of the adaptive anti-aliasing subdivision, 0 for a single ray through the center of a pixel
+     */
+    private int antiAliasingDepth = 0;
+    /**
+     * The color difference (in any of the RGB components, 0-255) above which an area of a pixel is subdivided
+     */
+    private double antiAliasingThreshold = 0;
+    /**
+     * The generator of the sample points in a pixel for supersampling, null for a ray through the pixel center
+     */
+    private SampleGenerator pixelGenerator;
+    /**
+     * The amount of the rays per pixel, when they are spread by a generator
+     */
+    private int pixelSamples;
+    /**
+     * Whether the geometries are culled against the frustum of every tile before its primary rays are traced
+     */
+    private boolean frustumCulling = false;
 
     /**
      * Private constructor
@@ -68,17 +127,323 @@ public class Camera implements Cloneable {
     }
 
     /**
-     * Cast a ray from the camera to a pixel
+     * Cast rays from the camera to the pixels of a rectangle, as a batch (so the ray tracer may trace them together)
+     *
+     * @param nx     size of webcam in X
+     * @param ny     size of webcam in Y
+     * @param col    the column of the top left pixel of the rectangle
+     * @param row    the row of the top left pixel of the rectangle
+     * @param width  the amount of the columns in the rectangle
+     * @param height the amount of the rows in the rectangle
+     */
+    void castRays(int nx, int ny, int col, int row, int width, int height) {
+        Ray[] rays = new Ray[width * height];
+        for (int i = 0; i < height; i++)
+            for (int j = 0; j < width; j++)
+                rays[i * width + j] = constructRay(nx, ny, col + j, row + i);
+        Color[] colors = frustumCulling
+                ? rayTracer.traceRays(rays, targetArea.constructFrustum(nx, ny, col, row, width, height))
+                : rayTracer.traceRays(rays);
+        for (int i = 0; i < height; i++)
+            for (int j = 0; j < width; j++)
+                imageWriter.writePixel(col + j, row + i, colors[i * width + j]);
+    }
+
+    /**
+     * Trace a ray through a point of the view plane
+     *
+     * @param nx size of webcam in X
+     * @param ny size of webcam in Y
+     * @param x  the x coordinate of the point, in pixels (the center of pixel j is at x = j)
+     * @param y  the y coordinate of the point, in pixels (the center of pixel i is at y = i)
+     * @return the color of the ray
+     */
+    private Color traceSample(int nx, int ny, double x, double y) {
+        return rayTracer.traceRay(targetArea.constructRay(nx, ny, 0, 0, x, -y));
+    }
+
+    /**
+     * Check if there is a contrast between the colors of the corners of an area
+     *
+     * @param colors the colors of the corners
+     * @return true if some color component differs by more than the anti-aliasing threshold, false otherwise
+     */
+    private boolean hasContrast(Color... colors) {
+        double minR = colors[0].getR(), maxR = minR, minG = colors[0].getG(), maxG = minG;
+        double minB = colors[0].getB(), maxB = minB;
+        for (Color c : colors) {
+            minR = Math.min(minR, c.getR());
+            maxR = Math.max(maxR, c.getR());
+            minG = Math.min(minG, c.getG());
+            maxG = Math.max(maxG, c.getG());
+            minB = Math.min(minB, c.getB());
+            maxB = Math.max(maxB, c.getB());
+        }
+        return maxR - minR > antiAliasingThreshold || maxG - minG > antiAliasingThreshold
+                || maxB - minB > antiAliasingThreshold;
+    }
+
+    /**
+     * Calculate the color of a pixel by the average of rays through the points of the pixel sample generator
      *
      * @param nx     size of webcam in X
      * @param ny     size of webcam in Y
      * @param column the x index of the pixel
      * @param row    the y index of the pixel
+     * @return the color of the pixel
+     */
+    private Color supersample(int nx, int ny, int column, int row) {
+        double[] points = pixelGenerator.generate(pixelSamples);
+        Color color = Color.BLACK;
+        rayTracer.startPixel();
+        try {
+            for (int k = 0; k < points.length; k += 2)
+                color = color.add(traceSample(nx, ny, column + points[k] - 0.5, row + points[k + 1] - 0.5));
+        } finally {
+            rayTracer.endPixel();
+        }
+        return color.reduce(points.length / 2);
+    }
+
+    /**
+     * Render a rectangle of pixels. With adaptive anti-aliasing, the corners of the pixels are traced once
+     * for the whole rectangle (every corner is shared by up to 4 pixels), and only the pixels with contrasting
+     * corners are subdivided.
+     *
+     * @param nx     size of webcam in X
+     * @param ny     size of webcam in Y
+     * @param col    the column of the top left pixel of the rectangle
+     * @param row    the row of the top left pixel of the rectangle
+     * @param width  the amount of the columns in the rectangle
+     * @param height the amount of the rows in the rectangle
+     */
+    private void renderArea(int nx, int ny, int col, int row, int width, int height) {
+        if (antiAliasingDepth == 0 && pixelGenerator == null) {
+            // cast rays through the pixels of the area (and color them – inside castRays)
+            castRays(nx, ny, col, row, width, height);
+            return;
+        }
+        if (antiAliasingDepth == 0) {
+            for (int i = row; i < row + height; i++)
+                for (int j = col; j < col + width; j++)
+                    imageWriter.writePixel(j, i, supersample(nx, ny, j, i));
+            return;
+        }
+
+        // adaptive supersampling - a pixel with similar colors at its corners is their average, otherwise it is
+        // split into 4 squares recursively (the corners of the pixels are shared by the neighbouring pixels)
+        QuadSubdivider<Color, Color> subdivider = new QuadSubdivider<>((x, y) -> traceSample(nx, ny, x, y),
+                (topLeft, topRight, bottomLeft, bottomRight) ->
+                        !hasContrast(topLeft, topRight, bottomLeft, bottomRight),
+                (size, topLeft, topRight, bottomLeft, bottomRight) -> topLeft.add(topRight, bottomLeft, bottomRight)
+                        .reduce(4),
+                (topLeft, topRight, bottomLeft, bottomRight) -> topLeft.add(topRight, bottomLeft, bottomRight)
+                        .reduce(4));
+        Color[] corners = new Color[(width + 1) * (height + 1)];
+        for (int i = 0; i <= height; i++)
+            for (int j = 0; j <= width; j++)
+                corners[i * (width + 1) + j] = traceSample(nx, ny, col + j - 0.5, row + i - 0.5);
+        for (int i = 0; i < height; i++)
+            for (int j = 0; j < width; j++) {
+                int k = i * (width + 1) + j;
+                // the samples of the subdivision of the pixel share its state (the corners are shared by pixels)
+                rayTracer.startPixel();
+                try {
+                    imageWriter.writePixel(col + j, row + i, subdivider.subdivide(col + j - 0.5, row + i - 0.5, 1,
+                            corners[k], corners[k + 1], corners[k + width + 1], corners[k + width + 2],
+                            antiAliasingDepth, antiAliasingDepth));
+                } finally {
+                    rayTracer.endPixel();
+                }
+            }
+    }
+
+    /**
+     * Render the tiles of the pixel manager until there are no more tiles
+     *
+     * @param nx size of webcam in X
+     * @param ny size of webcam in Y
+     */
+    private void renderTiles(int nx, int ny) {
+        PixelManager.Tile tile; // current tile
+        // allocate tiles in loop until there are no more tiles
+        while ((tile = pixelManager.nextTile()) != null) {
+            renderArea(nx, ny, tile.col(), tile.row(), tile.width(), tile.height());
+            pixelManager.tileDone(tile);
+        }
+    }
+
+    /**
+     * Estimate the cost of a tile - trace probe rays through a sparse grid of its pixels (or through its center
+     * if it is smaller than the grid), and scale the amount of the rays they cast to the size of the tile
+     *
+     * @param nx      size of webcam in X
+     * @param ny      size of webcam in Y
+     * @param tile    the tile
+     * @param spacing the spacing (in pixels) between the probe rays
+     * @param rays    the counter of the rays that the probe rays cast, updated by the estimation
+     * @return the estimated cost of the tile, in rays
+     */
+    private long estimateTileCost(int nx, int ny, PixelManager.Tile tile, int spacing, AtomicLong rays) {
+        int offset = Math.min(spacing, Math.min(tile.width(), tile.height())) / 2;
+        long count = 0, cast = 0;
+        for (int i = tile.row() + offset; i < tile.row() + tile.height(); i += spacing)
+            for (int j = tile.col() + offset; j < tile.col() + tile.width(); j += spacing) {
+                cast += rayTracer.estimateCost(constructRay(nx, ny, j, i));
+                count++;
+            }
+        rays.addAndGet(cast);
+        return Math.round((double) cast * tile.width() * tile.height() / count);
+    }
+
+    /**
+     * Create the pixel manager of a rendering. With a probe spacing, the cost estimation pre-pass runs first -
+     * the costs of the tiles are estimated on the threads of the rendering (the workers take the tiles in turn),
+     * the manager orders the tiles by the costs, and the time of rendering the whole image is estimated.
+     *
+     * @param nx             size of webcam in X
+     * @param ny             size of webcam in Y
+     * @param printInterval  the progress interval (in percents) between the debug prints, 0 for no debug print
+     * @param spacing        the spacing (in pixels) between the probe rays, 0 for no cost estimation
+     * @param renderExecutor the executor of the rendering, null to estimate on the current thread
+     * @return the pixel manager
+     */
+    private PixelManager createPixelManager(int nx, int ny, double printInterval, int spacing,
+                                            ExecutorService renderExecutor) {
+        if (spacing == 0) return new PixelManager(ny, nx, tileSize, printInterval);
+
+        long start = System.nanoTime();
+        AtomicLong rays = new AtomicLong();
+        PixelManager manager = new PixelManager(ny, nx, tileSize, printInterval, tiles -> {
+            long[] costs = new long[tiles.length];
+            AtomicInteger next = new AtomicInteger();
+            Runnable probe = () -> {
+                for (int k; (k = next.getAndIncrement()) < tiles.length; )
+                    costs[k] = estimateTileCost(nx, ny, tiles[k], spacing, rays);
+            };
+            if (renderExecutor == null) probe.run();
+            else runWorkers(renderExecutor, probe);
+            return costs;
+        });
+        // the probes ran on the threads of the rendering, so the time per ray already counts the parallelism
+        double nanosPerRay = (double) (System.nanoTime() - start) / Math.max(1, rays.get());
+        manager.setEstimatedTime((long) (manager.getTotalCost() * nanosPerRay));
+        return manager;
+    }
+
+    /**
+     * Run workers on an executor (a worker per thread of the rendering), and wait until all of them have finished
+     *
+     * @param renderExecutor the executor
+     * @param worker         the worker
+     */
+    private void runWorkers(ExecutorService renderExecutor, Runnable worker) {
+        try {
+            for (Future<?> future : renderExecutor.invokeAll(
+                    Collections.nCopies(threadsCount, Executors.callable(worker))))
+                future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Rendering failed", e.getCause());
+        }
+    }
+
+    /**
+     * Estimate the time of rendering the image, by a low resolution probe pass
+     * (with the spacing of the cost estimation, or a probe per tile if the cost estimation is off)
+     *
+     * @return the estimated rendering time
+     */
+    public Duration estimateRenderTime() {
+        final int nx = imageWriter.getNx(), ny = imageWriter.getNy();
+        ExecutorService renderExecutor = takeExecutor();
+        try {
+            return createPixelManager(nx, ny, 0, probeSpacing > 0 ? probeSpacing : tileSize, renderExecutor)
+                    .getEstimatedTime();
+        } finally {
+            giveBackExecutor(renderExecutor);
+        }
+    }
+
+    /**
+     * Get the progress of the current (or the last) rendering
+     *
+     * @return the percentage of the pixels that were already rendered, 0 if no rendering has started
+     */
+    public double getProgress() {
+        PixelManager manager = pixelManager;
+        return manager == null ? 0 : manager.getProgress();
+    }
+
+    /**
+     * Estimate the time left for the current (or the last) rendering. The estimation is by the rendered part of
+     * the image - by the estimated costs of the rendered tiles, when the cost estimation pre-pass is on.
+     *
+     * @return the estimated time left, null if there is no estimation yet
+     */
+    public Duration getTimeLeft() {
+        PixelManager manager = pixelManager;
+        return manager == null ? null : manager.getTimeLeft();
+    }
+
+    /**
+     * Take a pool for a rendering - the executor shared by the cameras with the given parallelism,
+     * created if there is none (or it was shut down).
+     * The threads of the pools are daemons, so they don't keep the application alive.
+     * The rendering must release the pool when it is finished.
+     *
+     * @param parallelism the amount of the threads of the pool
+     * @return the pool
+     */
+    private static synchronized ForkJoinPool acquirePool(int parallelism) {
+        ForkJoinPool pool = sharedExecutors.computeIfAbsent(parallelism, ForkJoinPool::new);
+        poolRenderings.merge(pool, 1, Integer::sum);
+        return pool;
+    }
+
+    /**
+     * Release a pool at the end of a rendering, and terminate it if no other rendering uses it
+     * and it was already shut down
+     *
+     * @param pool the pool the rendering took
      */
-    void castRay(int nx, int ny, int column, int row) {
-        Ray ray = constructRay(nx, ny, column, row);
-        Color color = rayTracer.traceRay(ray);
-        imageWriter.writePixel(column, row, color);
+    private static synchronized void releasePool(ForkJoinPool pool) {
+        if (poolRenderings.merge(pool, -1, Integer::sum) > 0) return;
+        poolRenderings.remove(pool);
+        if (sharedExecutors.get(pool.getParallelism()) != pool) pool.shutdown();
+    }
+
+    /**
+     * Shut down the executors shared by the cameras, after the renderings that already started are finished.
+     * A later rendering creates a new shared executor.
+     */
+    public static synchronized void shutdownSharedExecutor() {
+        for (ForkJoinPool pool : sharedExecutors.values())
+            if (!poolRenderings.containsKey(pool)) pool.shutdown();
+        sharedExecutors.clear();
+    }
+
+    /**
+     * Take the executor of a rendering - the executor of the camera, or a pool of the cameras. The work-stealing
+     * rendering uses all the threads of its pool, so its pool is sized by the threads count.
+     *
+     * @return the executor, null if the rendering doesn't use threads
+     */
+    private ExecutorService takeExecutor() {
+        if (threadsCount == 0) return null;
+        if (executor != null) return executor;
+        return acquirePool(workStealing ? threadsCount : Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Give back the executor of a rendering when the rendering is finished
+     *
+     * @param renderExecutor the executor that {@link #takeExecutor()} returned
+     */
+    private void giveBackExecutor(ExecutorService renderExecutor) {
+        if (renderExecutor != null && renderExecutor != executor)
+            releasePool((ForkJoinPool) renderExecutor);
     }
 
     /**
@@ -88,34 +453,89 @@ public class Camera implements Cloneable {
      */
     public Camera renderImage() {
         final int nx = imageWriter.getNx(), ny = imageWriter.getNy();
-        pixelManager = new PixelManager(ny, nx);
+        ExecutorService renderExecutor = takeExecutor();
+        try {
+            // the manager is complete (its tiles ordered by the costs) before the threads can take tiles from it
+            pixelManager = createPixelManager(nx, ny, printInterval, probeSpacing, renderExecutor);
+            if (renderExecutor == null)
+                renderTiles(nx, ny);
+            else if (workStealing)
+                ((ForkJoinPool) renderExecutor).invoke(new TileTask(nx, ny, 0, 0, nx, ny));
+            else // the workers take tiles until there are no more tiles
+                runWorkers(renderExecutor, () -> renderTiles(nx, ny));
+        } finally {
+            giveBackExecutor(renderExecutor);
+        }
+
+        return this;
+    }
 
-        if (threadsCount == 0)
-            for (int i = 0; i < ny; i++) {
-                for (int j = 0; j < nx; j++) {
-                    castRay(nx, ny, j, i);
+    /**
+     * A fork/join task that renders a rectangle of pixels. Large rectangles are split in halves along their longer
+     * side, so idle threads can steal the halves, until they are no larger than a tile.
+     */
+    private class TileTask extends RecursiveAction {
+        /**
+         * Serialization version (the task is never serialized)
+         */
+        @Serial
+        private static final long serialVersionUID = 1L;
+        /**
+         * Size of webcam in X and in Y
+         */
+        private final int nx, ny;
+        /**
+         * The column and the row of the top left pixel of the rectangle
+         */
+        private final int col, row;
+        /**
+         * The amount of the columns and the rows in the rectangle
+         */
+        private final int width, height;
+
+        /**
+         * Constructor for the task
+         *
+         * @param nx     size of webcam in X
+         * @param ny     size of webcam in Y
+         * @param col    the column of the top left pixel of the rectangle
+         * @param row    the row of the top left pixel of the rectangle
+         * @param width  the amount of the columns in the rectangle
+         * @param height the amount of the rows in the rectangle
+         */
+        TileTask(int nx, int ny, int col, int row, int width, int height) {
+            this.nx = nx;
+            this.ny = ny;
+            this.col = col;
+            this.row = row;
+            this.width = width;
+            this.height = height;
+        }
+
+        @Override
+        protected void compute() {
+            if (width > tileSize || height > tileSize) {
+                if (width >= height) {
+                    int half = width / 2;
+                    invokeAll(new TileTask(nx, ny, col, row, half, height),
+                            new TileTask(nx, ny, col + half, row, width - half, height));
+                } else {
+                    int half = height / 2;
+                    invokeAll(new TileTask(nx, ny, col, row, width, half),
+                            new TileTask(nx, ny, col, row + half, width, height - half));
                 }
+                return;
             }
-        else { // see further... option 2
-            var threads = new LinkedList<Thread>(); // list of threads
-            for (int i = 0; i < threadsCount; i++) // add appropriate number of threads
-                threads.add(new Thread(() -> { // add a thread with its code
-                    PixelManager.Pixel pixel; // current pixel(row,col)
-                    // allocate pixel(row,col) in loop until there are no more pixels
-                    while ((pixel = pixelManager.nextPixel()) != null)
-                        // cast ray through pixel (and color it – inside castRay)
-                        castRay(nx, ny, pixel.col(), pixel.row());
-                }));
-            // start all the threads
-            for (var thread : threads) thread.start();
-            // wait until all the threads have finished
+
+            // only the tiles of the work-stealing rendering split their sample loops between the threads
+            boolean splitting = RayTracerBase.setSampleSplitting(true);
             try {
-                for (var thread : threads) thread.join();
-            } catch (InterruptedException ignore) {
+                renderArea(nx, ny, col, row, width, height);
+            } finally {
+                RayTracerBase.setSampleSplitting(splitting);
             }
+            pixelManager.pixelsDone(width * height);
         }
-
-        return this;
     }
 
     /**
@@ -222,16 +642,139 @@ public class Camera implements Cloneable {
         /**
          * Set the number of threads to use for rendering
          *
-         * @param threadsCount the number of threads to use for rendering
+         * @param threadsCount the number of threads to use for rendering, 0 to render in the calling thread
          * @return the camera builder
          */
         public Builder setMultithreading(int threadsCount) {
-            if (camera.threadsCount < 0)
+            if (threadsCount < 0)
                 throw new MissingResourceException("threads count can't be smaller than 0", "Camera", "");
             camera.threadsCount = threadsCount;
             return this;
         }
 
+        /**
+         * Set the size of the tiles the image is rendered in
+         *
+         * @param tileSize the size of the side of a tile in pixels
+         * @return the camera builder
+         */
+        public Builder setTileSize(int tileSize) {
+            if (tileSize <= 0)
+                throw new IllegalArgumentException("tile size must be positive");
+            camera.tileSize = tileSize;
+            return this;
+        }
+
+        /**
+         * Set the executor that runs the rendering threads. The camera doesn't shut it down.
+         * By default, the cameras share an executor with a thread per available processor
+         * (see {@link Camera#shutdownSharedExecutor()}).
+         *
+         * @param executor the executor, null for the shared executor
+         * @return the camera builder
+         */
+        public Builder setExecutor(ExecutorService executor) {
+            camera.executor = executor;
+            return this;
+        }
+
+        /**
+         * Set whether to render in a work-stealing fork/join pool. The image is split recursively into halves
+         * that idle threads steal, and the sample loops of expensive pixels are split between idle threads too.
+         * The rendering uses all the threads of its pool: by default it is the executor shared by the cameras with
+         * a thread per processor, or the shared executor with the threads count. A given executor must be a
+         * {@link ForkJoinPool}, and its parallelism is used instead of the threads count.
+         *
+         * @param workStealing true for the fork/join rendering, false for threads that take tiles in order
+         * @return the camera builder
+         */
+        public Builder setWorkStealing(boolean workStealing) {
+            camera.workStealing = workStealing;
+            return this;
+        }
+
+        /**
+         * Set the cost estimation pre-pass. Before rendering, probe rays are traced through a sparse grid of pixels
+         * to estimate the cost of every tile (in the amount of the cast rays), the tiles are rendered from the most
+         * expensive to the cheapest, and the time left is estimated by the costs of the rendered tiles.
+         * The fork/join rendering splits the image by itself, so it uses only the time estimation.
+         *
+         * @param probeSpacing the spacing (in pixels) between the probe rays, 0 for no pre-pass
+         * @return the camera builder
+         */
+        public Builder setCostEstimation(int probeSpacing) {
+            if (probeSpacing < 0)
+                throw new IllegalArgumentException("probe spacing can't be negative");
+            camera.probeSpacing = probeSpacing;
+            return this;
+        }
+
+        /**
+         * Set the adaptive anti-aliasing. Every pixel is sampled at its corners (shared with the neighbouring
+         * pixels), and while the colors of the corners of an area differ by more than the threshold, it is
+         * split into 4 sub-areas, up to the maximum depth. So the additional rays are cast only along the edges.
+         *
+         * @param depth     the maximum depth of the subdivision (a pixel is sampled by up to (2^depth + 1)^2 rays),
+         *                  0 for no anti-aliasing (a single ray through the center of every pixel)
+         * @param threshold the color difference (in any of the RGB components, 0-255) above which an area
+         *                  is subdivided
+         * @return the camera builder
+         */
+        public Builder setAntiAliasing(int depth, double threshold) {
+            if (depth < 0)
+                throw new IllegalArgumentException("anti-aliasing depth can't be negative");
+            if (threshold < 0)
+                throw new IllegalArgumentException("anti-aliasing threshold can't be negative");
+            camera.antiAliasingDepth = depth;
+            camera.antiAliasingThreshold = threshold;
+            return this;
+        }
+
+        /**
+         * Set the supersampling of the pixels - every pixel gets the average color of several rays, spread in it
+         * by a sample generator. The adaptive anti-aliasing, when it is set, takes precedence.
+         *
+         * @param generator the generator of the sample points, null for a single ray through the pixel center
+         * @param samples   the amount of the rays per pixel
+         * @return the camera builder
+         */
+        public Builder setSupersampling(SampleGenerator generator, int samples) {
+            if (generator != null && samples <= 0)
+                throw new IllegalArgumentException("samples count must be positive");
+            camera.pixelGenerator = generator;
+            camera.pixelSamples = samples;
+            return this;
+        }
+
+        /**
+         * Set the frustum culling of the tiles. The frustum of the primary rays of a tile is built once, the
+         * geometries (the nodes of the BVH, the bounded and the unbounded geometries) are culled against it,
+         * and the rays of the tile are traced only with the geometries that are left. A tile without geometries
+         * gets the background color without tracing any ray. Used only with a single ray through every pixel.
+         * The bounding boxes of the geometries of the scene are calculated when the camera is built, so the
+         * geometries shouldn't be changed afterwards.
+         *
+         * @param frustumCulling true to cull the geometries for every tile, false to trace in the whole scene
+         * @return the camera builder
+         */
+        public Builder setFrustumCulling(boolean frustumCulling) {
+            camera.frustumCulling = frustumCulling;
+            return this;
+        }
+
+        /**
+         * Set the debug print of the rendering progress
+         *
+         * @param printInterval the progress interval (in percents) between the prints, 0 for no print
+         * @return the camera builder
+         */
+        public Builder setDebugPrint(double printInterval) {
+            if (printInterval < 0)
+                throw new IllegalArgumentException("print interval can't be negative");
+            camera.printInterval = printInterval;
+            return this;
+        }
+
         /**
          * rotate the camera view to the given point
          *
@@ -276,6 +819,10 @@ public class Camera implements Cloneable {
                 throw new MissingResourceException("imageWriter is missing", "Camera", "");
             if (camera.rayTracer == null)
                 throw new MissingResourceException("rayTracer is missing", "Camera", "");
+            if (camera.workStealing && camera.executor != null && !(camera.executor instanceof ForkJoinPool))
+                throw new IllegalArgumentException("work stealing rendering requires a fork/join executor");
+            // the culling needs the bounding boxes of the geometries - they are calculated once, not on every render
+            if (camera.frustumCulling) camera.rayTracer.scene.geometries.calcBoundingBox();
 
             try {
                 return (Camera) camera.clone();
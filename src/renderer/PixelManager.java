@@ -1,15 +1,31 @@
 package renderer;
 
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
 /**
  * PixelManager is a helper class. It is used for multi-threading in the
  * renderer and
  * for follow up its progress.<br/>
- * A Camera uses one pixel manager object and several Pixel objects - one in
- * each thread.
+ * The image is divided into square tiles, which are handed out to the threads in Morton (Z-order curve) order,
+ * so the threads work on neighbouring areas of the image. The tiles are allocated through an atomic counter
+ * and the progress is counted atomically, so the threads never wait for each other.<br/>
+ * When the costs of the tiles are estimated, the most expensive tiles are handed out first (so no expensive tile
+ * is left for the end), and the time left is estimated by the costs of the rendered tiles.
  *
  * @author Dan Zilberstein
  */
 class PixelManager {
+    /**
+     * Default size (in pixels) of the side of a tile
+     */
+    static final int DEFAULT_TILE_SIZE = 16;
+
     /**
      * Maximum rows of pixels
      */
@@ -19,60 +35,288 @@ class PixelManager {
      */
     private final int maxCols;
     /**
-     * Mutual exclusion object for synchronizing next pixel allocation between
-     * threads
+     * The size of the side of a tile in pixels
      */
-    private final Object mutexNext = new Object();
+    private final int tileSize;
     /**
-     * Currently processed row of pixels
+     * The tiles in the order they are handed out, every tile is encoded as (tile row &lt;&lt; 16 | tile column)
      */
-    private volatile int cRow = 0;
+    private final int[] tiles;
     /**
-     * Currently processed column of pixels
+     * The estimated costs of the tiles, in the order of the tiles (the amount of the pixels of a tile by default)
      */
-    private volatile int cCol = -1;
+    private final long[] costs;
+    /**
+     * The estimated cost of the whole image
+     */
+    private final long totalCost;
+    /**
+     * The estimated cost of the rendered tiles
+     */
+    private final AtomicLong costDone = new AtomicLong();
+    /**
+     * The time the rendering started at (in nanoseconds of {@link System#nanoTime()})
+     */
+    private final long startTime;
+    /**
+     * The estimated time of rendering the whole image in nanoseconds, negative if it is unknown
+     */
+    private volatile long estimatedTime = -1;
+    /**
+     * The index of the next tile to hand out
+     */
+    private final AtomicInteger nextTile = new AtomicInteger();
+    /**
+     * The amount of the pixels that were already rendered
+     */
+    private final AtomicInteger pixelsDone = new AtomicInteger();
+    /**
+     * The progress interval (in percents) between the debug prints, 0 if there is no debug print
+     */
+    private final double printInterval;
+    /**
+     * The last printed progress, in units of the print interval
+     */
+    private final AtomicInteger lastPrinted = new AtomicInteger();
 
     /**
-     * Initialize pixel manager data for multi-threading
+     * Initialize pixel manager data for multi-threading. When a cost estimator is given, the tiles are ordered
+     * by their estimated costs, the most expensive first (tiles of the same cost keep the Morton order).
+     *
+     * @param maxRows       the amount of pixel rows
+     * @param maxCols       the amount of pixel columns
+     * @param tileSize      the size of the side of a tile in pixels
+     * @param printInterval the progress interval (in percents) between the debug prints, 0 for no debug print
+     * @param costEstimator the function that estimates the costs of the tiles (given in the Morton order),
+     *                      null for the amount of the pixels of every tile
+     */
+    PixelManager(int maxRows, int maxCols, int tileSize, double printInterval,
+                 Function<Tile[], long[]> costEstimator) {
+        this.maxRows = maxRows;
+        this.maxCols = maxCols;
+        this.tileSize = tileSize;
+        this.printInterval = printInterval;
+
+        int tileRows = (maxRows + tileSize - 1) / tileSize;
+        int tileCols = (maxCols + tileSize - 1) / tileSize;
+        // sort the tiles by their Morton codes - the code is kept in the high bits and the tile in the low ones
+        long[] codes = new long[tileRows * tileCols];
+        for (int row = 0, k = 0; row < tileRows; row++)
+            for (int col = 0; col < tileCols; col++, k++)
+                codes[k] = mortonCode(col, row) << 32 | (long) row << 16 | col;
+        Arrays.sort(codes);
+        int[] mortonTiles = new int[codes.length];
+        Tile[] pixelTiles = new Tile[codes.length];
+        for (int k = 0; k < codes.length; k++) {
+            mortonTiles[k] = (int) codes[k];
+            pixelTiles[k] = createTile(mortonTiles[k], -1);
+        }
+
+        if (costEstimator == null) {
+            tiles = mortonTiles;
+            costs = Arrays.stream(pixelTiles).mapToLong(Tile::cost).toArray();
+            totalCost = (long) maxRows * maxCols;
+        } else {
+            long[] estimated = costEstimator.apply(pixelTiles);
+            int[] order = IntStream.range(0, codes.length).boxed()
+                    .sorted(Comparator.comparingLong(k -> -Math.max(1, estimated[k])))
+                    .mapToInt(Integer::intValue).toArray();
+            tiles = new int[codes.length];
+            costs = new long[codes.length];
+            long total = 0;
+            for (int k = 0; k < order.length; k++) {
+                tiles[k] = mortonTiles[order[k]];
+                total += costs[k] = Math.max(1, estimated[order[k]]);
+            }
+            totalCost = total;
+        }
+        startTime = System.nanoTime(); // the estimation is not a part of the rendering
+    }
+
+    /**
+     * Initialize pixel manager data for multi-threading, with the tiles in the Morton order
+     *
+     * @param maxRows       the amount of pixel rows
+     * @param maxCols       the amount of pixel columns
+     * @param tileSize      the size of the side of a tile in pixels
+     * @param printInterval the progress interval (in percents) between the debug prints, 0 for no debug print
+     */
+    PixelManager(int maxRows, int maxCols, int tileSize, double printInterval) {
+        this(maxRows, maxCols, tileSize, printInterval, null);
+    }
+
+    /**
+     * Initialize pixel manager data for multi-threading, with default tiles and no debug print
      *
      * @param maxRows the amount of pixel rows
      * @param maxCols the amount of pixel columns
      */
     PixelManager(int maxRows, int maxCols) {
-        this.maxRows = maxRows;
-        this.maxCols = maxCols;
+        this(maxRows, maxCols, DEFAULT_TILE_SIZE, 0);
+    }
+
+    /**
+     * Calculate the Morton code of a tile - interleave the bits of its column and row
+     *
+     * @param col the column of the tile
+     * @param row the row of the tile
+     * @return the Morton code of the tile
+     */
+    static long mortonCode(int col, int row) {
+        return spreadBits(col) | spreadBits(row) << 1;
     }
 
     /**
-     * Function for thread-safe manipulating of main follow up Pixel object - this
-     * function is critical section for all the threads, and the pixel manager data
-     * is the shared data of this critical section.<br/>
-     * The function provides next available pixel number each call.
+     * Spread the 16 low bits of a number, so there is an empty bit between every two bits
      *
-     * @return Pixel if next pixel is allocated, null if there are no more pixels
+     * @param x the number
+     * @return the spread bits
      */
-    Pixel nextPixel() {
-        synchronized (mutexNext) {
-            if (cRow == maxRows) return null;
+    private static long spreadBits(int x) {
+        long v = x & 0xFFFF;
+        v = (v | v << 8) & 0x00FF00FF;
+        v = (v | v << 4) & 0x0F0F0F0F;
+        v = (v | v << 2) & 0x33333333;
+        v = (v | v << 1) & 0x55555555;
+        return v;
+    }
 
-            ++cCol;
-            if (cCol < maxCols)
-                return new Pixel(cRow, cCol);
+    /**
+     * Function for thread-safe allocation of the next tile - the tiles are allocated by an atomic counter,
+     * so any amount of threads can call it without locking.
+     *
+     * @return the next tile, null if there are no more tiles
+     */
+    Tile nextTile() {
+        int index = nextTile.getAndIncrement();
+        return index < tiles.length ? getTile(index) : null;
+    }
 
-            cCol = 0;
-            ++cRow;
-            if (cRow < maxRows)
-                return new Pixel(cRow, cCol);
+    /**
+     * Get a tile by its index in the order of the tiles
+     *
+     * @param index the index of the tile
+     * @return the tile
+     */
+    private Tile getTile(int index) {
+        return createTile(tiles[index], costs[index]);
+    }
+
+    /**
+     * Create a tile by its encoding
+     *
+     * @param tile the encoded tile (tile row &lt;&lt; 16 | tile column)
+     * @param cost the estimated cost of the tile, negative for the amount of its pixels
+     * @return the tile
+     */
+    private Tile createTile(int tile, long cost) {
+        int col = (tile & 0xFFFF) * tileSize;
+        int row = (tile >>> 16) * tileSize;
+        int width = Math.min(tileSize, maxCols - col), height = Math.min(tileSize, maxRows - row);
+        return new Tile(col, row, width, height, cost < 0 ? (long) width * height : cost);
+    }
+
+    /**
+     * Get the estimated cost of the whole image
+     *
+     * @return the sum of the estimated costs of the tiles
+     */
+    long getTotalCost() {
+        return totalCost;
+    }
+
+    /**
+     * Set the estimated time of rendering the whole image, used until some tiles are rendered
+     *
+     * @param nanos the estimated time in nanoseconds
+     */
+    void setEstimatedTime(long nanos) {
+        estimatedTime = nanos;
+    }
+
+    /**
+     * Get the estimated time of rendering the whole image
+     *
+     * @return the estimated time, null if it is unknown
+     */
+    Duration getEstimatedTime() {
+        long nanos = estimatedTime;
+        return nanos < 0 ? null : Duration.ofNanos(nanos);
+    }
+
+    /**
+     * Report that a tile was rendered
+     *
+     * @param tile the rendered tile
+     */
+    void tileDone(Tile tile) {
+        costDone.addAndGet(tile.cost());
+        pixelsDone(tile.width() * tile.height());
+    }
+
+    /**
+     * Report that some pixels were rendered, and print the progress if it passed the next print interval.
+     * Only the thread that advances the last printed progress prints it, so every percentage is printed once.
+     *
+     * @param count the amount of the rendered pixels
+     */
+    void pixelsDone(int count) {
+        int done = pixelsDone.addAndGet(count);
+        if (printInterval <= 0) return;
+
+        int current = (int) (getProgress(done) / printInterval);
+        int last = lastPrinted.get();
+        if (current > last && lastPrinted.compareAndSet(last, current))
+            System.out.printf("%5.1f%%\r", current * printInterval);
+    }
+
+    /**
+     * Get the progress of the rendering
+     *
+     * @return the percentage of the pixels that were already rendered
+     */
+    double getProgress() {
+        return getProgress(pixelsDone.get());
+    }
+
+    /**
+     * Estimate the time left for the rendering. Once some tiles are rendered, it is extrapolated from the time
+     * they took and their share of the estimated cost of the image, otherwise the initial estimation is used.
+     *
+     * @return the estimated time left, null if there is no estimation yet
+     */
+    Duration getTimeLeft() {
+        long done = costDone.get(), total = totalCost;
+        if (done == 0) { // no costs of tiles were reported (e.g. fork/join rendering), extrapolate by the pixels
+            done = pixelsDone.get();
+            total = (long) maxRows * maxCols;
         }
-        return null;
+        if (done >= total) return Duration.ZERO;
+        long elapsed = System.nanoTime() - startTime;
+        if (done == 0)
+            return estimatedTime < 0 ? null : Duration.ofNanos(Math.max(0, estimatedTime - elapsed));
+        return Duration.ofNanos((long) (elapsed * ((double) (total - done) / done)));
+    }
+
+    /**
+     * Get the progress of the rendering for an amount of rendered pixels
+     *
+     * @param done the amount of the rendered pixels
+     * @return the percentage of the rendered pixels
+     */
+    private double getProgress(int done) {
+        return 100.0 * done / ((long) maxRows * maxCols);
     }
 
     /**
-     * Immutable class for object containing allocated pixel (with its row and column numbers)
+     * Immutable class for object containing allocated tile (a rectangle of pixels)
      *
-     * @param col the column number of the pixel
-     * @param row the row number of the pixel
+     * @param col    the column number of the top left pixel of the tile
+     * @param row    the row number of the top left pixel of the tile
+     * @param width  the amount of the columns in the tile
+     * @param height the amount of the rows in the tile
+     * @param cost   the estimated cost of the tile
      */
-    record Pixel(int col, int row) {
+    record Tile(int col, int row, int width, int height, long cost) {
     }
 }
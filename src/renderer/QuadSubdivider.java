@@ -0,0 +1,150 @@
+package renderer;
+
+/**
+ * Adaptive sampling of a square area by recursive subdivision - if the samples at the corners of a square agree
+ * (or the maximum depth is reached) the square is resolved from its corners, otherwise it is split into 4 squares
+ * (the new samples on the edges and in the center are shared by the sub-squares).<br/>
+ * It is the subdivision of the adaptive anti-aliasing of the camera, and of the adaptive sampling of glossy and
+ * diffused rays and of soft shadows in the ray tracer.
+ *
+ * @param <S> the type of the samples
+ * @param <R> the type of the result of a square
+ */
+final class QuadSubdivider<S, R> {
+    /**
+     * A function that traces a sample at a point of the area
+     *
+     * @param <S> the type of the samples
+     */
+    @FunctionalInterface
+    interface Sampler<S> {
+        /**
+         * Trace a sample
+         *
+         * @param x the x coordinate of the sample
+         * @param y the y coordinate of the sample
+         * @return the sample
+         */
+        S sample(double x, double y);
+    }
+
+    /**
+     * A function of the 4 corners of a square
+     *
+     * @param <T> the type of the corners
+     * @param <V> the type of the value
+     */
+    @FunctionalInterface
+    interface Corners<T, V> {
+        /**
+         * Apply the function to the corners of a square
+         *
+         * @param topLeft     the top left corner
+         * @param topRight    the top right corner
+         * @param bottomLeft  the bottom left corner
+         * @param bottomRight the bottom right corner
+         * @return the value of the function
+         */
+        V apply(T topLeft, T topRight, T bottomLeft, T bottomRight);
+    }
+
+    /**
+     * A function that resolves a square that isn't split from the samples at its corners
+     *
+     * @param <S> the type of the samples
+     * @param <R> the type of the result
+     */
+    @FunctionalInterface
+    interface Resolver<S, R> {
+        /**
+         * Resolve a square
+         *
+         * @param size        the size of the side of the square
+         * @param topLeft     the sample at the top left corner
+         * @param topRight    the sample at the top right corner
+         * @param bottomLeft  the sample at the bottom left corner
+         * @param bottomRight the sample at the bottom right corner
+         * @return the result of the square
+         */
+        R resolve(double size, S topLeft, S topRight, S bottomLeft, S bottomRight);
+    }
+
+    /**
+     * The function that traces the samples
+     */
+    private final Sampler<S> sampler;
+    /**
+     * The predicate of the corners of a square that agree, so the square isn't split
+     */
+    private final Corners<S, Boolean> agreement;
+    /**
+     * The function that resolves a square that isn't split
+     */
+    private final Resolver<S, R> resolver;
+    /**
+     * The function that combines the results of the 4 sub-squares of a split square
+     */
+    private final Corners<R, R> combiner;
+
+    /**
+     * Constructor for the subdivider
+     *
+     * @param sampler   the function that traces the samples
+     * @param agreement the predicate of the corners of a square that agree, so the square isn't split
+     * @param resolver  the function that resolves a square that isn't split
+     * @param combiner  the function that combines the results of the 4 sub-squares of a split square
+     */
+    QuadSubdivider(Sampler<S> sampler, Corners<S, Boolean> agreement, Resolver<S, R> resolver,
+                   Corners<R, R> combiner) {
+        this.sampler = sampler;
+        this.agreement = agreement;
+        this.resolver = resolver;
+        this.combiner = combiner;
+    }
+
+    /**
+     * Sample a square, tracing its corners first
+     *
+     * @param x        the x coordinate of the top left corner
+     * @param y        the y coordinate of the top left corner
+     * @param size     the size of the side of the square
+     * @param depth    the depth of the subdivision
+     * @param minDepth the depth of the subdivision that is left, down to which the squares are always split
+     * @return the result of the square
+     */
+    R subdivide(double x, double y, double size, int depth, int minDepth) {
+        return subdivide(x, y, size, sampler.sample(x, y), sampler.sample(x + size, y),
+                sampler.sample(x, y + size), sampler.sample(x + size, y + size), depth, minDepth);
+    }
+
+    /**
+     * Sample a square whose corners are already traced
+     *
+     * @param x           the x coordinate of the top left corner
+     * @param y           the y coordinate of the top left corner
+     * @param size        the size of the side of the square
+     * @param topLeft     the sample at the top left corner
+     * @param topRight    the sample at the top right corner
+     * @param bottomLeft  the sample at the bottom left corner
+     * @param bottomRight the sample at the bottom right corner
+     * @param depth       the depth of the subdivision that is left
+     * @param minDepth    the depth of the subdivision that is left, down to which the squares are always split
+     * @return the result of the square
+     */
+    R subdivide(double x, double y, double size, S topLeft, S topRight, S bottomLeft, S bottomRight,
+                int depth, int minDepth) {
+        if (depth == 0 || depth <= minDepth && agreement.apply(topLeft, topRight, bottomLeft, bottomRight))
+            return resolver.resolve(size, topLeft, topRight, bottomLeft, bottomRight);
+
+        double half = size / 2;
+        S top = sampler.sample(x + half, y);
+        S left = sampler.sample(x, y + half);
+        S center = sampler.sample(x + half, y + half);
+        S right = sampler.sample(x + size, y + half);
+        S bottom = sampler.sample(x + half, y + size);
+        return combiner.apply(subdivide(x, y, half, topLeft, top, left, center, depth - 1, minDepth),
+                subdivide(x + half, y, half, top, topRight, center, right, depth - 1, minDepth),
+                subdivide(x, y + half, half, left, center, bottomLeft, bottom, depth - 1, minDepth),
+                subdivide(x + half, y + half, half, center, right, bottom, bottomRight, depth - 1, minDepth));
+    }
+}
@@ -0,0 +1,189 @@
+package renderer;
+
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static primitives.Util.*;
+
+/**
+ * A fan of rays from a point through a square area around a central ray - the secondary rays of glossy and
+ * diffused reflection and the shadow rays of soft shadows.<br/>
+ * The fan is the same as the rays of a {@link TargetArea} directed by the central ray, but the rays are built
+ * on the fly from a sample pattern (the offsets of the samples from the center of the area), and the patterns of
+ * the regular grids are calculated once per density. So a fan needs only its local frame, without lists of rays.
+ */
+final class RayFan {
+    /**
+     * The distance from the head to the sampled area (the default distance of a target area)
+     */
+    private static final double DISTANCE = 100;
+    /**
+     * The cached patterns of the regular grids, by the density of the grid
+     */
+    private static final ConcurrentHashMap<Integer, double[]> GRIDS = new ConcurrentHashMap<>();
+
+    /**
+     * The head of the rays
+     */
+    private final Point head;
+    /**
+     * The normal of the surface the rays leave, the rays on its other side are excluded (null if there is none)
+     */
+    private final Vector normal;
+    /**
+     * The dot product of the central ray direction and the normal
+     */
+    private final double centralDot;
+    /**
+     * The center of the sampled area
+     */
+    private final double cx, cy, cz;
+    /**
+     * The right direction of the sampled area
+     */
+    private final double rx, ry, rz;
+    /**
+     * The up direction of the sampled area
+     */
+    private final double ux, uy, uz;
+    /**
+     * The size of a cell of the pattern in the sampled area, along the right and the up directions
+     */
+    private final double cellWidth, cellHeight;
+
+    /**
+     * Constructor of the fan
+     *
+     * @param ray    the central ray
+     * @param normal the normal of the surface the rays leave
+     * @param size   the size of the side of the sampled area
+     * @param cells  the amount of the cells of the pattern along a side of the area
+     */
+    RayFan(Ray ray, Vector normal, double size, int cells) {
+        head = ray.getHead();
+        this.normal = normal;
+        Vector vTo = ray.getDirection();
+        centralDot = vTo.dotProduct(normal);
+        Vector vUp = vTo.makePerpendicularVector();
+        Vector vRight = vUp.crossProduct(vTo);
+        cx = head.getX() + vTo.getX() * DISTANCE;
+        cy = head.getY() + vTo.getY() * DISTANCE;
+        cz = head.getZ() + vTo.getZ() * DISTANCE;
+        rx = vRight.getX();
+        ry = vRight.getY();
+        rz = vRight.getZ();
+        ux = vUp.getX();
+        uy = vUp.getY();
+        uz = vUp.getZ();
+        cellWidth = cellHeight = alignZero(size) / cells;
+    }
+
+    /**
+     * Constructor of a fan through a rectangular area of a given frame, without a surface
+     * (the rays of a {@link TargetArea})
+     *
+     * @param head       the head of the rays
+     * @param center     the center of the sampled area
+     * @param vRight     the right direction of the sampled area
+     * @param vUp        the up direction of the sampled area
+     * @param cellWidth  the width of a cell of the pattern
+     * @param cellHeight the height of a cell of the pattern
+     */
+    RayFan(Point head, Point center, Vector vRight, Vector vUp, double cellWidth, double cellHeight) {
+        this.head = head;
+        normal = null;
+        centralDot = 0;
+        cx = center.getX();
+        cy = center.getY();
+        cz = center.getZ();
+        rx = vRight.getX();
+        ry = vRight.getY();
+        rz = vRight.getZ();
+        ux = vUp.getX();
+        uy = vUp.getY();
+        uz = vUp.getZ();
+        this.cellWidth = cellWidth;
+        this.cellHeight = cellHeight;
+    }
+
+    /**
+     * Get the pattern of the regular grid of a density - the offsets of the centers of the cells from the center
+     * of the grid, in cells (the rows from top to bottom, and the columns from left to right in every row).
+     * The patterns are calculated once and shared, so they must not be changed.
+     *
+     * @param density the amount of the cells along a side of the grid
+     * @return the offsets, 2 values per sample: right, up
+     */
+    static double[] grid(int density) {
+        return GRIDS.computeIfAbsent(density, d -> {
+            double[] pattern = new double[d * d * 2];
+            double center = (d - 1) / 2.0;
+            for (int i = 0, k = 0; i < d; i++)
+                for (int j = 0; j < d; j++) {
+                    pattern[k++] = j - center;
+                    pattern[k++] = center - i;
+                }
+            return pattern;
+        });
+    }
+
+    /**
+     * Get the pattern of the points of a sample generator (for a fan of a single cell)
+     *
+     * @param generator the generator of the sample points
+     * @param count     the amount of the samples
+     * @return the offsets, 2 values per sample: right, up
+     */
+    static double[] generate(SampleGenerator generator, int count) {
+        double[] pattern = generator.generate(count);
+        for (int k = 0; k < pattern.length; k += 2) {
+            pattern[k] = pattern[k] - 0.5;
+            pattern[k + 1] = 0.5 - pattern[k + 1];
+        }
+        return pattern;
+    }
+
+    /**
+     * Get a ray of the fan
+     *
+     * @param right the offset of the sample to the right of the center, in cells
+     * @param up    the offset of the sample up from the center, in cells
+     * @return the ray through the sample, null if the ray is on the other side of the surface
+     */
+    Ray getRay(double right, double up) {
+        double x = cx, y = cy, z = cz;
+        double xJ = right * cellWidth, yI = up * cellHeight;
+        if (!isZero(xJ)) {
+            x += rx * xJ;
+            y += ry * xJ;
+            z += rz * xJ;
+        }
+        if (!isZero(yI)) {
+            x += ux * yI;
+            y += uy * yI;
+            z += uz * yI;
+        }
+        Ray ray = new Ray(head, new Vector(x - head.getX(), y - head.getY(), z - head.getZ()));
+        return normal == null || compareSign(ray.getDirection().dotProduct(normal), centralDot) ? ray : null;
+    }
+
+    /**
+     * Get the rays of the fan through all the samples of a pattern (for splitting the samples between threads)
+     *
+     * @param pattern the offsets of the samples, 2 values per sample: right, up
+     * @return the rays through the samples, without the rays on the other side of the surface
+     */
+    List<Ray> getRays(double[] pattern) {
+        List<Ray> rays = new ArrayList<>(pattern.length / 2);
+        for (int k = 0; k < pattern.length; k += 2) {
+            Ray ray = getRay(pattern[k], pattern[k + 1]);
+            if (ray != null) rays.add(ray);
+        }
+        return rays;
+    }
+}
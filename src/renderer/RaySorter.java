@@ -0,0 +1,110 @@
+package renderer;
+
+import primitives.Point;
+import primitives.Vector;
+
+import java.util.Arrays;
+
+/**
+ * Sorts a batch of incoherent rays (reflected, refracted and shadow rays) so rays that start near each other and
+ * go in similar directions are traced one after the other, and visit the same nodes of the hierarchy while they are
+ * still in the cache.<br/>
+ * The key of a ray is the octant of its direction, followed by the Morton code of the cell of its head in a grid
+ * over the bounds of the heads of the batch.
+ */
+final class RaySorter {
+    /**
+     * The amount of the bits of a coordinate of a cell (the grid has 2^BITS cells along every axis)
+     */
+    private static final int BITS = 9;
+    /**
+     * The amount of the cells along an axis of the grid
+     */
+    private static final int CELLS = 1 << BITS;
+
+    /**
+     * Don't let anyone instantiate this class.
+     */
+    private RaySorter() {
+    }
+
+    /**
+     * Sort a batch of rays by their keys
+     *
+     * @param heads      the heads of the rays
+     * @param directions the directions of the rays
+     * @param size       the amount of the rays
+     * @return the indices of the rays in the sorted order
+     */
+    static int[] order(Point[] heads, Vector[] directions, int size) {
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY, minZ = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY, maxZ = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < size; i++) {
+            Point head = heads[i];
+            minX = Math.min(minX, head.getX());
+            minY = Math.min(minY, head.getY());
+            minZ = Math.min(minZ, head.getZ());
+            maxX = Math.max(maxX, head.getX());
+            maxY = Math.max(maxY, head.getY());
+            maxZ = Math.max(maxZ, head.getZ());
+        }
+        double scaleX = scale(minX, maxX), scaleY = scale(minY, maxY), scaleZ = scale(minZ, maxZ);
+
+        // the key is in the high 32 bits and the index in the low 32 bits, so a sort of the longs sorts the indices
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            Point head = heads[i];
+            Vector direction = directions[i];
+            int octant = (direction.getX() < 0 ? 1 : 0) | (direction.getY() < 0 ? 2 : 0)
+                    | (direction.getZ() < 0 ? 4 : 0);
+            long code = spreadBits(cell(head.getX(), minX, scaleX))
+                    | spreadBits(cell(head.getY(), minY, scaleY)) << 1
+                    | spreadBits(cell(head.getZ(), minZ, scaleZ)) << 2;
+            keys[i] = ((long) octant << 3 * BITS | code) << 32 | i;
+        }
+        Arrays.sort(keys);
+
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++)
+            order[i] = (int) keys[i];
+        return order;
+    }
+
+    /**
+     * Calculate the factor from a coordinate to a cell of the grid along an axis
+     *
+     * @param min the minimal coordinate of the heads
+     * @param max the maximal coordinate of the heads
+     * @return the factor (0 if all the heads have the same coordinate)
+     */
+    private static double scale(double min, double max) {
+        return max > min ? CELLS / (max - min) : 0;
+    }
+
+    /**
+     * Calculate the cell of a coordinate along an axis
+     *
+     * @param x     the coordinate
+     * @param min   the minimal coordinate of the heads
+     * @param scale the factor from a coordinate to a cell
+     * @return the index of the cell
+     */
+    private static int cell(double x, double min, double scale) {
+        return Math.min((int) ((x - min) * scale), CELLS - 1);
+    }
+
+    /**
+     * Spread the {@link #BITS} low bits of a number, so there are two empty bits between every two bits
+     *
+     * @param x the number
+     * @return the spread bits
+     */
+    private static long spreadBits(int x) {
+        long v = x & (CELLS - 1);
+        v = (v | v << 16) & 0x030000FFL;
+        v = (v | v << 8) & 0x0300F00FL;
+        v = (v | v << 4) & 0x030C30C3L;
+        v = (v | v << 2) & 0x09249249L;
+        return v;
+    }
+}
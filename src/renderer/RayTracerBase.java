@@ -1,9 +1,13 @@
 package renderer;
 
+import geometries.Frustum;
+import geometries.Intersectable;
 import primitives.Color;
 import primitives.Ray;
 import scene.Scene;
 
+import java.util.Arrays;
+
 /**
  * Abstract class for ray tracing
  */
@@ -12,6 +16,11 @@ public abstract class RayTracerBase {
      * The scene to trace rays in
      */
     protected final Scene scene;
+    /**
+     * Whether the sample loops of the current thread may be split between the threads of its fork/join pool
+     * (set only while a tile is rendered in the work-stealing mode of the camera)
+     */
+    private static final ThreadLocal<Boolean> sampleSplitting = ThreadLocal.withInitial(() -> false);
 
     /**
      * Constructor
@@ -22,6 +31,27 @@ public abstract class RayTracerBase {
         this.scene = scene;
     }
 
+    /**
+     * Set whether the sample loops of the current thread may be split between the threads of its fork/join pool
+     *
+     * @param splitting true to allow the splitting, false otherwise
+     * @return the previous value (to restore it when the current work is done)
+     */
+    static boolean setSampleSplitting(boolean splitting) {
+        boolean previous = sampleSplitting.get();
+        sampleSplitting.set(splitting);
+        return previous;
+    }
+
+    /**
+     * Check if the sample loops of the current thread may be split between the threads of its fork/join pool
+     *
+     * @return true if the splitting is allowed, false otherwise
+     */
+    static boolean isSampleSplitting() {
+        return sampleSplitting.get();
+    }
+
     /**
      * Trace a ray in the scene
      *
@@ -29,4 +59,75 @@ public abstract class RayTracerBase {
      * @return the color of the ray after tracing
      */
     public abstract Color traceRay(Ray ray);
+
+    /**
+     * Trace a batch of rays in the scene (the primary rays of a tile). The rays are traced one by one,
+     * unless the ray tracer traces them together.
+     *
+     * @param rays the rays to trace
+     * @return the colors of the rays after tracing, in the order of the rays
+     */
+    public Color[] traceRays(Ray[] rays) {
+        Color[] colors = new Color[rays.length];
+        for (int i = 0; i < rays.length; i++)
+            colors[i] = traceRay(rays[i]);
+        return colors;
+    }
+
+    /**
+     * Trace a batch of rays inside a frustum (the primary rays of a tile, with the frustum of the tile).
+     * The geometries of the scene are culled against the frustum once, and the rays are traced only with the
+     * geometries that may be inside it. If no geometry is left, all the rays get the background color without
+     * being traced.
+     *
+     * @param rays    the rays to trace (from the apex of the frustum, inside it)
+     * @param frustum the frustum
+     * @return the colors of the rays after tracing, in the order of the rays
+     */
+    public Color[] traceRays(Ray[] rays, Frustum frustum) {
+        Intersectable visible = scene.geometries.cull(frustum);
+        if (visible != null) return traceRays(rays, visible);
+        Color[] colors = new Color[rays.length];
+        Arrays.fill(colors, scene.background);
+        return colors;
+    }
+
+    /**
+     * Trace a batch of rays, finding their closest hits only with some of the geometries of the scene
+     * (the secondary rays are traced in the whole scene). The ray tracer traces the rays in the whole scene,
+     * unless it supports tracing with some of the geometries.
+     *
+     * @param rays       the rays to trace
+     * @param geometries the geometries the rays may hit
+     * @return the colors of the rays after tracing, in the order of the rays
+     */
+    protected Color[] traceRays(Ray[] rays, Intersectable geometries) {
+        return traceRays(rays);
+    }
+
+    /**
+     * Start a pixel of the image on the current thread - the primary rays of the samples of the pixel that are
+     * traced until {@link #endPixel()} share the state of the pixel (e.g. a limit of secondary rays).
+     * The ray tracer has no state of a pixel, unless it keeps such a state.
+     */
+    public void startPixel() {
+    }
+
+    /**
+     * End the pixel that {@link #startPixel()} started on the current thread
+     */
+    public void endPixel() {
+    }
+
+    /**
+     * Estimate the cost of tracing a ray, in the amount of the rays that are cast to trace it
+     * (the ray itself and all the secondary rays: reflected, refracted, shadow rays etc.)
+     *
+     * @param ray the ray to trace
+     * @return the estimated cost of tracing the ray (1 if the tracer doesn't count its rays)
+     */
+    public long estimateCost(Ray ray) {
+        traceRay(ray);
+        return 1;
+    }
 }
@@ -0,0 +1,15 @@
+package renderer;
+
+/**
+ * Generator of sample points in the unit square, used for spreading the rays of an area
+ * (the pixels for anti-aliasing, the cones of glossy and diffused rays, the light areas of soft shadows)
+ */
+public interface SampleGenerator {
+    /**
+     * Generate sample points in the unit square [0,1)x[0,1)
+     *
+     * @param count the amount of the points
+     * @return the coordinates of the points, 2 values per point: x, y
+     */
+    double[] generate(int count);
+}
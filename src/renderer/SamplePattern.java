@@ -0,0 +1,147 @@
+package renderer;
+
+import java.util.SplittableRandom;
+
+/**
+ * The standard sample generators. The random patterns use a random generator per thread, so the threads never
+ * share a generator. The low discrepancy sequences (Halton, Sobol) are randomized by a Cranley-Patterson rotation -
+ * all the points of a sequence are shifted (modulo 1) by the same random offset, so every call gets a different
+ * sequence with the same uniformity.
+ */
+public enum SamplePattern implements SampleGenerator {
+    /**
+     * Regular grid - the centers of the cells of a square grid (the count is rounded to a square number)
+     */
+    GRID {
+        @Override
+        public double[] generate(int count) {
+            int side = gridSide(count);
+            double[] points = new double[side * side * 2];
+            for (int i = 0, k = 0; i < side; i++)
+                for (int j = 0; j < side; j++) {
+                    points[k++] = (j + 0.5) / side;
+                    points[k++] = (i + 0.5) / side;
+                }
+            return points;
+        }
+    },
+    /**
+     * Stratified jitter - a random point in every cell of a square grid (the count is rounded to a square number)
+     */
+    STRATIFIED {
+        @Override
+        public double[] generate(int count) {
+            SplittableRandom random = RANDOMS.get();
+            int side = gridSide(count);
+            double[] points = new double[side * side * 2];
+            for (int i = 0, k = 0; i < side; i++)
+                for (int j = 0; j < side; j++) {
+                    points[k++] = (j + random.nextDouble()) / side;
+                    points[k++] = (i + random.nextDouble()) / side;
+                }
+            return points;
+        }
+    },
+    /**
+     * Halton sequence (bases 2 and 3) with Cranley-Patterson rotation
+     */
+    HALTON {
+        @Override
+        public double[] generate(int count) {
+            SplittableRandom random = RANDOMS.get();
+            double shiftX = random.nextDouble(), shiftY = random.nextDouble();
+            double[] points = new double[count * 2];
+            for (int i = 0; i < count; i++) {
+                points[2 * i] = rotate(radicalInverse(i, 2), shiftX);
+                points[2 * i + 1] = rotate(radicalInverse(i, 3), shiftY);
+            }
+            return points;
+        }
+    },
+    /**
+     * Sobol sequence (its first two dimensions) with Cranley-Patterson rotation
+     */
+    SOBOL {
+        @Override
+        public double[] generate(int count) {
+            SplittableRandom random = RANDOMS.get();
+            double shiftX = random.nextDouble(), shiftY = random.nextDouble();
+            double[] points = new double[count * 2];
+            for (int i = 0; i < count; i++) {
+                // the first dimension is the van der Corput sequence (the reversed bits of the index)
+                int x = Integer.reverse(i), y = 0;
+                for (int bit = 0, index = i; index != 0; bit++, index >>>= 1)
+                    if ((index & 1) != 0) y ^= SOBOL_DIRECTIONS[bit];
+                points[2 * i] = rotate(Integer.toUnsignedLong(x) * 0x1p-32, shiftX);
+                points[2 * i + 1] = rotate(Integer.toUnsignedLong(y) * 0x1p-32, shiftY);
+            }
+            return points;
+        }
+    };
+
+    /**
+     * The random generators of the threads, every one split from a common generator
+     */
+    private static final ThreadLocal<SplittableRandom> RANDOMS = ThreadLocal.withInitial(SamplePattern::splitRandom);
+    /**
+     * The common generator the generators of the threads are split from
+     */
+    private static final SplittableRandom ROOT_RANDOM = new SplittableRandom();
+    /**
+     * The direction numbers of the second dimension of the Sobol sequence (primitive polynomial x + 1)
+     */
+    private static final int[] SOBOL_DIRECTIONS = new int[32];
+
+    static {
+        SOBOL_DIRECTIONS[0] = 1 << 31;
+        for (int i = 1; i < 32; i++)
+            SOBOL_DIRECTIONS[i] = SOBOL_DIRECTIONS[i - 1] ^ (SOBOL_DIRECTIONS[i - 1] >>> 1);
+    }
+
+    /**
+     * Split a new random generator from the common generator (the common generator is not thread-safe)
+     *
+     * @return the new random generator
+     */
+    private static SplittableRandom splitRandom() {
+        synchronized (ROOT_RANDOM) {
+            return ROOT_RANDOM.split();
+        }
+    }
+
+    /**
+     * Calculate the side of a square grid with about the given amount of cells
+     *
+     * @param count the amount of the cells
+     * @return the side of the grid (at least 1)
+     */
+    private static int gridSide(int count) {
+        return Math.max(1, (int) Math.round(Math.sqrt(count)));
+    }
+
+    /**
+     * Calculate the radical inverse of an index - mirror its digits in a base around the decimal point
+     *
+     * @param index the index
+     * @param base  the base
+     * @return the radical inverse, in [0,1)
+     */
+    static double radicalInverse(int index, int base) {
+        double inverse = 0, factor = 1.0 / base;
+        for (; index > 0; index /= base, factor /= base)
+            inverse += (index % base) * factor;
+        return inverse;
+    }
+
+    /**
+     * Rotate a coordinate by a shift, modulo 1 (Cranley-Patterson rotation)
+     *
+     * @param value the coordinate, in [0,1)
+     * @param shift the shift, in [0,1)
+     * @return the rotated coordinate, in [0,1)
+     */
+    private static double rotate(double value, double shift) {
+        double rotated = value + shift;
+        return rotated >= 1 ? rotated - 1 : rotated;
+    }
+}
@@ -1,5 +1,6 @@
 package renderer;
 
+import geometries.HitRecord;
 import geometries.Intersectable;
 import lighting.DirectionalLight;
 import lighting.LightSource;
@@ -8,6 +9,10 @@ import primitives.*;
 import scene.Scene;
 
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
 
 import static geometries.Intersectable.GeoPoint;
 import static java.lang.Math.abs;
@@ -33,6 +38,63 @@ public class SimpleRayTracer extends RayTracerBase {
      * The density of the grid, used for glossy and diffused reflection.
      */
     protected final int density;
+    /**
+     * The ray counters of the threads that are estimating costs (there is no counter for other threads)
+     */
+    private static final ThreadLocal<long[]> rayCounters = new ThreadLocal<>();
+    /**
+     * The color difference (in any of the RGB components, 0-255) under which the samples of the adaptive sampling
+     * of glossy and diffused rays agree, negative if the whole grid of rays is traced
+     */
+    private double glossyThreshold = -1;
+    /**
+     * Whether the shadow rays of soft shadows are sampled adaptively (instead of tracing the whole grid)
+     */
+    private boolean adaptiveShadows = false;
+    /**
+     * The generator of the sample points of glossy and diffused rays, null for the regular grid of the density
+     */
+    private SampleGenerator glossyGenerator;
+    /**
+     * The amount of glossy and diffused rays per fan, when they are spread by a generator
+     */
+    private int glossySamples;
+    /**
+     * The generator of the sample points of soft shadows, null for the regular grid of the density
+     */
+    private SampleGenerator shadowGenerator;
+    /**
+     * The amount of shadow rays per light, when they are spread by a generator
+     */
+    private int shadowSamples;
+    /**
+     * The contribution of a fan of glossy or diffused rays under which it collapses to its central ray,
+     * negative if the amount of the rays does not depend on the contribution
+     */
+    private double budgetThreshold = -1;
+    /**
+     * The maximum amount of secondary (glossy, diffused and shadow) rays per pixel, 0 for no limit
+     */
+    private int rayLimit = 0;
+    /**
+     * The state of the limit of every thread, when there is a limit: the amount of secondary rays left to the
+     * current pixel (or primary ray), and 1 while a pixel is started (0 otherwise)
+     */
+    private final ThreadLocal<long[]> raysLeft = ThreadLocal.withInitial(() -> new long[2]);
+    /**
+     * The contribution under which the reflected and refracted rays are terminated by Russian roulette,
+     * negative if they are cut off under {@link #MIN_CALC_COLOR_K}
+     */
+    private double rouletteThreshold = -1;
+    /**
+     * The weight of the current ray in the color of its primary ray, for every thread (the product of the factors
+     * of the enclosing reflected and refracted rays), when there is Russian roulette
+     */
+    private final ThreadLocal<double[]> rayWeight = ThreadLocal.withInitial(() -> new double[1]);
+    /**
+     * Whether the closest hits of a batch of primary rays are found by packets of rays
+     */
+    private boolean packetTraversal = false;
 
     /**
      * Constructor
@@ -54,12 +116,210 @@ public class SimpleRayTracer extends RayTracerBase {
         this.density = density;
     }
 
+    /**
+     * Set the adaptive sampling of glossy and diffused rays. Instead of the whole grid, the corners of the sampling
+     * square are traced first, and a square is subdivided only if its corners hit different geometries or
+     * their colors differ by more than the threshold (up to the resolution of the grid).
+     *
+     * @param threshold the color difference (in any of the RGB components, 0-255) under which samples agree,
+     *                  negative to trace the whole grid
+     * @return the ray tracer
+     */
+    public SimpleRayTracer setAdaptiveGlossy(double threshold) {
+        this.glossyThreshold = threshold;
+        return this;
+    }
+
+    /**
+     * Set the adaptive sampling of soft shadows. Instead of the whole grid of shadow rays, the corners of the light
+     * area are traced first, and an area is subdivided only if the transparencies of its corners differ
+     * (in the penumbra), so fully lit and fully occluded points cast few shadow rays.
+     *
+     * @param adaptiveShadows true for the adaptive sampling, false to trace the whole grid
+     * @return the ray tracer
+     */
+    public SimpleRayTracer setAdaptiveSoftShadows(boolean adaptiveShadows) {
+        this.adaptiveShadows = adaptiveShadows;
+        return this;
+    }
+
+    /**
+     * Set the sample pattern of glossy and diffused rays (instead of the regular grid of the density).
+     * The adaptive sampling, when it is set, takes precedence.
+     *
+     * @param generator the generator of the sample points, null for the regular grid
+     * @param samples   the amount of the rays per fan
+     * @return the ray tracer
+     */
+    public SimpleRayTracer setGlossySampling(SampleGenerator generator, int samples) {
+        if (generator != null && samples <= 0)
+            throw new IllegalArgumentException("samples count must be positive");
+        this.glossyGenerator = generator;
+        this.glossySamples = samples;
+        return this;
+    }
+
+    /**
+     * Set the sample pattern of soft shadows (instead of the regular grid of the density).
+     * The adaptive sampling, when it is set, takes precedence.
+     *
+     * @param generator the generator of the sample points, null for the regular grid
+     * @param samples   the amount of the shadow rays per light
+     * @return the ray tracer
+     */
+    public SimpleRayTracer setShadowSampling(SampleGenerator generator, int samples) {
+        if (generator != null && samples <= 0)
+            throw new IllegalArgumentException("samples count must be positive");
+        this.shadowGenerator = generator;
+        this.shadowSamples = samples;
+        return this;
+    }
+
+    /**
+     * Set the ray budget of glossy and diffused rays. The amount of the rays of a fan is scaled by its
+     * contribution - the largest component of the attenuation (k * kx) of the effect, divided by the depth of
+     * the recursion (1 at the first hit) - so deep and dim fans cast fewer rays.
+     * A fan whose contribution is under the threshold collapses to its central ray.
+     *
+     * @param threshold the contribution under which a fan collapses to its central ray,
+     *                  negative for fans of full size
+     * @return the ray tracer
+     */
+    public SimpleRayTracer setRayBudget(double threshold) {
+        this.budgetThreshold = threshold;
+        return this;
+    }
+
+    /**
+     * Set a hard limit of the secondary (glossy, diffused and shadow) rays of a pixel, which bounds the time
+     * of the pixel. The samples of a pixel share its limit (see {@link #startPixel()}), a primary ray that is
+     * traced outside a pixel gets a limit of its own (so do the corners of the pixels of the adaptive
+     * anti-aliasing, which neighbouring pixels share). When the rays are used up, the rest of the fans collapse
+     * to their central rays. When there is a limit, the samples are not split between threads, and the fans are
+     * not sampled adaptively (the amount of the rays of the adaptive sampling is not known in advance).
+     *
+     * @param maxRays the maximum amount of the secondary rays per pixel, 0 for no limit
+     * @return the ray tracer
+     */
+    public SimpleRayTracer setRayLimit(int maxRays) {
+        if (maxRays < 0)
+            throw new IllegalArgumentException("rays limit must not be negative");
+        this.rayLimit = maxRays;
+        return this;
+    }
+
+    /**
+     * Set the Russian roulette termination of the reflected and refracted rays, instead of cutting off the rays
+     * whose contribution is under {@link #MIN_CALC_COLOR_K}. The contribution of a ray is the largest component of
+     * its k * kx, accumulated along the enclosing rays. A ray whose contribution is under the threshold survives
+     * with a probability of its contribution divided by the threshold, and the color of a surviving ray is divided
+     * by that probability, so the image is not darkened on average.
+     * The maximum level of the recursion still bounds the rays, and the samples are not split between threads.
+     *
+     * @param threshold the contribution under which the rays may be terminated, negative for the fixed cutoff
+     * @return the ray tracer
+     */
+    public SimpleRayTracer setRussianRoulette(double threshold) {
+        this.rouletteThreshold = threshold;
+        return this;
+    }
+
+    /**
+     * Set the packet traversal of the primary rays. The closest hits of a batch of primary rays (a tile) are found
+     * by packets of neighbouring rays that traverse the BVH of the scene together, instead of ray by ray.
+     *
+     * @param packetTraversal true for the packet traversal, false to trace the primary rays one by one
+     * @return the ray tracer
+     */
+    public SimpleRayTracer setPacketTraversal(boolean packetTraversal) {
+        this.packetTraversal = packetTraversal;
+        return this;
+    }
+
+    @Override
+    public Color[] traceRays(Ray[] rays) {
+        if (!packetTraversal) return super.traceRays(rays);
+        return traceRays(rays, scene.geometries);
+    }
+
+    @Override
+    protected Color[] traceRays(Ray[] rays, Intersectable geometries) {
+        Color[] colors = new Color[rays.length];
+        if (!packetTraversal) {
+            for (int i = 0; i < rays.length; i++) {
+                startPrimaryRay();
+                GeoPoint closestPoint = findClosestIntersection(rays[i], geometries);
+                colors[i] = closestPoint == null ? scene.background : calcColor(closestPoint, rays[i]);
+            }
+            return colors;
+        }
+
+        HitRecord[] hits = new HitRecord[rays.length];
+        for (int i = 0; i < rays.length; i++)
+            hits[i] = new HitRecord();
+        geometries.findClosestHits(rays, hits);
+        for (int i = 0; i < rays.length; i++) {
+            startPrimaryRay();
+            colors[i] = hits[i].hasHit() ? calcColor(hits[i].toGeoPoint(rays[i]), rays[i]) : scene.background;
+        }
+        return colors;
+    }
+
     @Override
     public Color traceRay(Ray ray) {
+        startPrimaryRay();
         GeoPoint closestPoint = findClosestIntersection(ray);
         return closestPoint == null ? scene.background : calcColor(closestPoint, ray);
     }
 
+    /**
+     * Reset the state of the thread for a new primary ray (the rays left of the limit, unless a pixel is started,
+     * the weight of the ray)
+     */
+    private void startPrimaryRay() {
+        if (rayLimit > 0) {
+            long[] left = raysLeft.get();
+            if (left[1] == 0) left[0] = rayLimit;
+        }
+        if (rouletteThreshold >= 0) rayWeight.get()[0] = 1;
+    }
+
+    @Override
+    public void startPixel() {
+        if (rayLimit == 0) return;
+        long[] left = raysLeft.get();
+        left[0] = rayLimit;
+        left[1] = 1;
+    }
+
+    @Override
+    public void endPixel() {
+        if (rayLimit > 0) raysLeft.get()[1] = 0;
+    }
+
+    @Override
+    public long estimateCost(Ray ray) {
+        long[] counter = new long[1];
+        rayCounters.set(counter);
+        // the counter is of the current thread, so the samples aren't split between other threads
+        boolean splitting = setSampleSplitting(false);
+        try {
+            traceRay(ray);
+        } finally {
+            setSampleSplitting(splitting);
+            rayCounters.remove();
+        }
+        return counter[0];
+    }
+
+    /**
+     * Count a cast ray, if the current thread is estimating a cost
+     */
+    private static void countRay() {
+        long[] counter = rayCounters.get();
+        if (counter != null) counter[0]++;
+    }
+
     /**
      * Calculate the color at a point
      *
@@ -92,7 +352,21 @@ public class SimpleRayTracer extends RayTracerBase {
      * @return the closest intersection
      */
     GeoPoint findClosestIntersection(Ray ray) {
-        return ray.findClosestGeoPoint(scene.geometries.findGeoIntersections(ray));
+        return findClosestIntersection(ray, scene.geometries);
+    }
+
+    /**
+     * Find the closest intersection of a ray with some of the scene's geometries
+     *
+     * @param ray        the ray
+     * @param geometries the geometries
+     * @return the closest intersection
+     */
+    GeoPoint findClosestIntersection(Ray ray, Intersectable geometries) {
+        countRay();
+        // the record of the thread is reused for all the rays, only the winning hit is converted to a GeoPoint
+        HitRecord hit = HitRecord.ofCurrentThread(Double.POSITIVE_INFINITY);
+        return geometries.findClosestHit(ray, hit) ? hit.toGeoPoint(ray) : null;
     }
 
     /**
@@ -129,11 +403,57 @@ public class SimpleRayTracer extends RayTracerBase {
      * @return the color at the point
      */
     Color calcGlobalEffect(Ray ray, int level, Double3 k, Double3 kx) {
+        return traceGlobalEffect(ray, level, k, kx).color();
+    }
+
+    /**
+     * Trace a ray of a global effect - the color of {@link #calcGlobalEffect}, and the geometry the ray hit
+     *
+     * @param ray   the ray to calculate the color for
+     * @param level the level of the recursion
+     * @param k     the factor of the color
+     * @param kx    the factor of the effect
+     * @return the sample of the ray, its geometry is null if it hit nothing or was not traced
+     */
+    private GlossySample traceGlobalEffect(Ray ray, int level, Double3 k, Double3 kx) {
         Double3 kkx = k.product(kx);
+        if (rouletteThreshold >= 0)
+            return calcGlobalEffectRoulette(ray, level, k, kx, kkx);
         if (kkx.lowerThan(MIN_CALC_COLOR_K))
-            return Color.BLACK;
+            return new GlossySample(Color.BLACK, null);
+        GeoPoint gp = findClosestIntersection(ray);
+        return gp == null ? new GlossySample(scene.background, null)
+                : new GlossySample(calcColor(gp, ray, level - 1, kx).scale(k), gp.geometry);
+    }
+
+    /**
+     * Calculate the global effect at a point with Russian roulette termination (see {@link #setRussianRoulette})
+     *
+     * @param ray   the ray to calculate the color for
+     * @param level the level of the recursion
+     * @param k     the factor of the color
+     * @param kx    the factor of the effect
+     * @param kkx   the product of the factors
+     * @return the sample of the ray, its color divided by the survival probability of the ray
+     */
+    private GlossySample calcGlobalEffectRoulette(Ray ray, int level, Double3 k, Double3 kx, Double3 kkx) {
+        double[] weight = rayWeight.get();
+        double parentWeight = weight[0];
+        double contribution = parentWeight * kkx.max();
+        double survival = 1;
+        if (contribution < rouletteThreshold) {
+            survival = contribution / rouletteThreshold;
+            if (ThreadLocalRandom.current().nextDouble() >= survival)
+                return new GlossySample(Color.BLACK, null);
+        }
         GeoPoint gp = findClosestIntersection(ray);
-        return (gp == null ? scene.background : calcColor(gp, ray, level - 1, kx).scale(k));
+        if (gp == null) return new GlossySample(scene.background.scale(1 / survival), null);
+        weight[0] = parentWeight * k.max() / survival;
+        try {
+            return new GlossySample(calcColor(gp, ray, level - 1, kx).scale(k).scale(1 / survival), gp.geometry);
+        } finally {
+            weight[0] = parentWeight;
+        }
     }
 
     /**
@@ -190,19 +510,8 @@ public class SimpleRayTracer extends RayTracerBase {
      */
     Double3 transparency(GeoPoint gp, Vector l, Vector n, LightSource light) {
         Ray lightRay = new Ray(gp.point, l.scale(-1), n); // from point to light source
-        var intersections = scene.geometries.findGeoIntersections(lightRay, light.getDistance(gp.point));
-        Double3 ktr = Double3.ONE;
-
-        if (intersections == null)
-            return ktr;
-
-        for (GeoPoint p : intersections) {
-            ktr = ktr.product(p.geometry.getMaterial().kT);
-            if (ktr.lowerThan(MIN_CALC_COLOR_K))
-                return Double3.ZERO;
-        }
-
-        return ktr;
+        countRay();
+        return scene.geometries.calcTransparency(lightRay, light.getDistance(gp.point), Double3.ONE, MIN_CALC_COLOR_K);
     }
 
     /**
@@ -231,19 +540,78 @@ public class SimpleRayTracer extends RayTracerBase {
     }
 
     /**
-     * Construct the rays of target area from a ray
+     * Construct the fan of rays from a ray through the square around it
+     *
+     * @param ray       the central ray of the fan
+     * @param n         the normal at the head of the ray
+     * @param vpSize    the size of the square
+     * @param generator the generator of the sample points, null for a regular grid
+     * @param samples   the amount of the samples
+     * @return the fan
+     */
+    private RayFan constructFan(Ray ray, Vector n, double vpSize, SampleGenerator generator, int samples) {
+        return new RayFan(ray, n, vpSize, generator == null ? gridSide(samples) : 1);
+    }
+
+    /**
+     * Get the sample pattern of a fan - a cached regular grid, or the points of a generator
      *
-     * @param ray    the ray to construct the rays from
-     * @param n      the normal at the point
-     * @param vpSize the size of the view plane
-     * @return the rays
+     * @param generator the generator of the sample points, null for a regular grid
+     * @param samples   the amount of the samples
+     * @return the offsets of the samples, 2 values per sample: right, up
      */
-    List<Ray> constructRays(Ray ray, Vector n, double vpSize) {
-        double res = ray.getDirection().dotProduct(n);
-        return isZero(vpSize) ? List.of(ray) :
-                new TargetArea().setDirection(ray).setDensity(density).setVpSize(vpSize, vpSize)
-                        .constructRayGrid().stream()
-                        .filter(r -> compareSign(r.getDirection().dotProduct(n), res)).toList();
+    private static double[] samplePattern(SampleGenerator generator, int samples) {
+        return generator == null ? RayFan.grid(gridSide(samples)) : RayFan.generate(generator, samples);
+    }
+
+    /**
+     * Calculate the side of the largest square grid with up to the given amount of samples
+     *
+     * @param samples the amount of the samples
+     * @return the side of the grid
+     */
+    private static int gridSide(int samples) {
+        return (int) Math.sqrt(samples);
+    }
+
+    /**
+     * Scale the amount of the samples of a fan of glossy or diffused rays by the ray budget
+     * (see {@link #setRayBudget(double)})
+     *
+     * @param samples the full amount of the samples
+     * @param level   the level of the recursion of the rays
+     * @param k       the k value of the point at the base ray
+     * @param kx      the color of the effect at the point
+     * @return the amount of the samples, 1 if the fan collapses to its central ray
+     */
+    private int budgetSamples(int samples, int level, Double3 k, Double3 kx) {
+        if (budgetThreshold < 0) return samples;
+        double contribution = k.product(kx).max() / (MAX_CALC_COLOR_LEVEL - level + 1);
+        return contribution < budgetThreshold ? 1
+                : Math.max(1, (int) Math.round(samples * Math.min(1, contribution)));
+    }
+
+    /**
+     * Get the amount of the samples of a fan that the rays left to the current pixel allow
+     * (see {@link #setRayLimit(int)})
+     *
+     * @param samples the amount of the samples of the fan
+     * @return the amount of the allowed samples, 1 if the fan collapses to its central ray
+     */
+    private int availableRays(int samples) {
+        if (rayLimit == 0 || samples <= 1) return samples;
+        return (int) Math.max(1, Math.min(samples, raysLeft.get()[0]));
+    }
+
+    /**
+     * Spend the rays of a fan from the rays left to the current pixel - before they are traced, so the fans of
+     * their hits get only the rest. Only the rays that are traced are spent, not the samples of the pattern
+     * on the other side of the surface.
+     *
+     * @param rays the amount of the rays of the fan that are traced
+     */
+    private void spendRays(int rays) {
+        if (rayLimit > 0) raysLeft.get()[0] -= rays;
     }
 
     /**
@@ -259,11 +627,161 @@ public class SimpleRayTracer extends RayTracerBase {
      * @return the color at the point
      */
     Color calcGlobalEffectAverageColor(Ray baseRay, Vector n, int level, Double3 k, Double3 kx, double vpSize) {
+        if (isZero(vpSize)) return calcGlobalEffect(baseRay, level, k, kx);
+        int fullSamples = glossyGenerator == null ? density * density : glossySamples;
+        int samples = availableRays(budgetSamples(fullSamples, level, k, kx));
+        if (fullSamples > 1 && (glossyGenerator == null ? gridSide(samples) : samples) == 1)
+            return calcGlobalEffect(baseRay, level, k, kx);
+        // a fan with fewer rays (by the budget or the limit) is sampled by its smaller pattern
+        if (glossyThreshold >= 0 && density > 1 && rayLimit == 0 && samples == fullSamples)
+            return calcGlobalEffectAdaptiveColor(baseRay, n, level, k, kx, vpSize);
+
         Color color = Color.BLACK;
-        List<Ray> rays = constructRays(baseRay, n, vpSize);
-        for (Ray r : rays)
-            color = color.add(calcGlobalEffect(r, level, k, kx));
-        return color.reduce(rays.size());
+        RayFan fan = constructFan(baseRay, n, vpSize, glossyGenerator, samples);
+        double[] pattern = samplePattern(glossyGenerator, samples);
+        List<Ray> rays = fan.getRays(pattern);
+        if (pattern.length > 2) spendRays(rays.size());
+        if (shouldSplitSamples(rays.size()))
+            for (Color c : traceSamples(rays, r -> calcGlobalEffect(r, level, k, kx)))
+                color = color.add(c);
+        else
+            for (Ray r : rays)
+                color = color.add(calcGlobalEffect(r, level, k, kx));
+        // all the rays may be on the other side of the surface
+        return rays.isEmpty() ? Color.BLACK : color.reduce(rays.size());
+    }
+
+    /**
+     * A sample of the adaptive sampling of glossy and diffused rays (or any traced ray of a global effect)
+     *
+     * @param color    the color of the sample, null if the sample ray is on the other side of the surface
+     * @param geometry the geometry the sample ray hit, null if it hit nothing or was not traced
+     */
+    private record GlossySample(Color color, Intersectable geometry) {
+    }
+
+    /**
+     * Calculate the average color of the reflected or refracted rays by adaptive sampling
+     * (the sampling square is the same as the grid of {@link #calcGlobalEffectAverageColor})
+     *
+     * @param baseRay the base ray to calculate the rays from
+     * @param n       the normal at the point of the base ray
+     * @param level   the level of the recursion of the rays
+     * @param k       the k value of the point at the base ray
+     * @param kx      the color of the effect at the point
+     * @param vpSize  the size of the sampling square
+     * @return the color at the point
+     */
+    private Color calcGlobalEffectAdaptiveColor(Ray baseRay, Vector n, int level, Double3 k, Double3 kx,
+                                                double vpSize) {
+        if (k.product(kx).lowerThan(MIN_CALC_COLOR_K))
+            return Color.BLACK;
+
+        RayFan fan = new RayFan(baseRay, n, vpSize, density);
+        // the grid points are at 0..density-1 in both axes, the subdivision reaches them (or a finer resolution).
+        // squares larger than 4 grid cells are always split, so small objects inside them are not missed
+        int depth = 32 - Integer.numberOfLeadingZeros(density - 2);
+        double size = density - 1;
+        double[] weight = new double[1];
+        Color sum = new QuadSubdivider<GlossySample, Color>(
+                (x, y) -> traceGlossySample(fan, level, k, kx, x, y), this::agree,
+                (side, topLeft, topRight, bottomLeft, bottomRight) ->
+                        weighGlossy(side, weight, topLeft, topRight, bottomLeft, bottomRight),
+                (topLeft, topRight, bottomLeft, bottomRight) -> topLeft.add(topRight, bottomLeft, bottomRight))
+                .subdivide(0, 0, size, depth, Math.min(depth, 2));
+        return weight[0] == 0 ? Color.BLACK : sum.scale(1 / weight[0]);
+    }
+
+    /**
+     * Trace a sample of the adaptive sampling of glossy and diffused rays
+     *
+     * @param fan   the fan of the sampling square
+     * @param level the level of the recursion of the rays
+     * @param k     the k value of the point at the base ray
+     * @param kx    the color of the effect at the point
+     * @param x     the x coordinate of the sample, in grid units
+     * @param y     the y coordinate of the sample, in grid units
+     * @return the sample
+     */
+    private GlossySample traceGlossySample(RayFan fan, int level, Double3 k, Double3 kx,
+                                          double x, double y) {
+        double center = (density - 1) / 2.0;
+        Ray ray = fan.getRay(x - center, center - y);
+        return ray == null ? new GlossySample(null, null) : traceGlobalEffect(ray, level, k, kx);
+    }
+
+    /**
+     * Check if the samples of a square agree - all of them hit the same geometry (or nothing) with similar colors.
+     * The samples on the other side of the surface have no color, so they agree with each other and only
+     * the other samples are compared.
+     *
+     * @param samples the samples at the corners of the square
+     * @return true if the samples agree, false otherwise
+     */
+    private boolean agree(GlossySample... samples) {
+        GlossySample first = null;
+        for (GlossySample sample : samples) {
+            if (sample.color() == null) continue;
+            if (first == null) first = sample;
+            else if (sample.geometry() != first.geometry()
+                    || Math.abs(sample.color().getR() - first.color().getR()) > glossyThreshold
+                    || Math.abs(sample.color().getG() - first.color().getG()) > glossyThreshold
+                    || Math.abs(sample.color().getB() - first.color().getB()) > glossyThreshold)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Resolve a square of the adaptive glossy sampling - the average color of its corners that are on the right side
+     * of the surface, weighted by the area of the square
+     *
+     * @param size    the size of the side of the square, in grid units
+     * @param weight  the total weight (area) of the sampled squares, updated by the square
+     * @param samples the samples at the corners of the square
+     * @return the weighted color of the square
+     */
+    private static Color weighGlossy(double size, double[] weight, GlossySample... samples) {
+        Color color = Color.BLACK;
+        int count = 0;
+        for (GlossySample sample : samples)
+            if (sample.color() != null) {
+                color = color.add(sample.color());
+                count++;
+            }
+        if (count == 0) return Color.BLACK;
+        weight[0] += size * size;
+        return color.scale(size * size / count);
+    }
+
+    /**
+     * Check if the samples of a loop should be split between threads - only when the camera renders in the
+     * work-stealing mode (see {@link #setSampleSplitting}) and some threads of its pool are idle
+     * (usually at the end of the rendering, when few expensive pixels are left).
+     * The samples are never split when the rays of a primary ray keep a state in their thread
+     * (a limit of rays or Russian roulette).
+     *
+     * @param count the amount of the samples
+     * @return true if the samples should be split, false otherwise
+     */
+    private boolean shouldSplitSamples(int count) {
+        ForkJoinPool pool = ForkJoinTask.getPool();
+        return count > 1 && rayLimit == 0 && rouletteThreshold < 0 && pool != null && isSampleSplitting()
+                && pool.getActiveThreadCount() < pool.getParallelism();
+    }
+
+    /**
+     * Trace the sample rays in parallel tasks of the current fork/join pool.
+     * The results are returned in the order of the rays, so they are summed in the same order as in a single thread.
+     *
+     * @param rays   the sample rays
+     * @param sample the function that traces a single sample ray
+     * @param <T>    the type of the result of a sample
+     * @return the results of the samples
+     */
+    private static <T> List<T> traceSamples(List<Ray> rays, Function<Ray, T> sample) {
+        return ForkJoinTask.invokeAll(rays.stream().map(r -> ForkJoinTask.adapt(() -> sample.apply(r))).toList())
+                .stream().map(ForkJoinTask::join).toList();
     }
 
     /**
@@ -276,11 +794,113 @@ public class SimpleRayTracer extends RayTracerBase {
      * @return the color at the point
      */
     Double3 calcLocalSoftShadowsEffects(PointLight lightSource, GeoPoint gp, Vector n, Vector l) {
+        Ray ray = new Ray(gp.point, l);
+        double softness = lightSource.getShadowSoftness();
+        if (isZero(softness)) return transparency(gp, ray.getDirection(), n, lightSource);
+        int fullSamples = shadowGenerator == null ? density * density : shadowSamples;
+        int samples = availableRays(fullSamples);
+        if (fullSamples > 1 && (shadowGenerator == null ? gridSide(samples) : samples) == 1)
+            return transparency(gp, ray.getDirection(), n, lightSource);
+        if (adaptiveShadows && density > 1 && rayLimit == 0)
+            return calcAdaptiveSoftShadows(lightSource, gp, n, l);
+
+        Double3 ktr = Double3.ZERO;
+        RayFan fan = constructFan(ray, n, softness, shadowGenerator, samples);
+        double[] pattern = samplePattern(shadowGenerator, samples);
+        List<Ray> rays = fan.getRays(pattern);
+        if (pattern.length > 2) spendRays(rays.size());
+        if (shouldSplitSamples(rays.size()))
+            for (Double3 t : traceSamples(rays, r -> transparency(gp, r.getDirection(), n, lightSource)))
+                ktr = ktr.add(t);
+        else
+            for (Ray r : rays)
+                ktr = ktr.add(transparency(gp, r.getDirection(), n, lightSource));
+        // all the rays may be on the other side of the surface
+        return rays.isEmpty() ? Double3.ZERO : ktr.reduce(rays.size());
+    }
+
+    /**
+     * Calculate the transparency of a point towards a light with soft shadows by adaptive sampling
+     * (the light area is the same as the grid of {@link #calcLocalSoftShadowsEffects})
+     *
+     * @param lightSource the light source
+     * @param gp          the point
+     * @param n           the normal at the point
+     * @param l           the light vector at the point
+     * @return the transparency of the point
+     */
+    private Double3 calcAdaptiveSoftShadows(PointLight lightSource, GeoPoint gp, Vector n, Vector l) {
+        double softness = lightSource.getShadowSoftness();
+        RayFan fan = new RayFan(new Ray(gp.point, l), n, softness, density);
+        // as in the glossy sampling - up to the resolution of the grid, squares larger than 4 cells are split
+        int depth = 32 - Integer.numberOfLeadingZeros(density - 2);
+        double size = density - 1;
+        double[] weight = new double[1];
+        Double3 sum = new QuadSubdivider<Double3, Double3>(
+                (x, y) -> traceShadowSample(fan, gp, n, lightSource, x, y), SimpleRayTracer::shadowsAgree,
+                (side, topLeft, topRight, bottomLeft, bottomRight) ->
+                        weighShadow(side, weight, topLeft, topRight, bottomLeft, bottomRight),
+                (topLeft, topRight, bottomLeft, bottomRight) ->
+                        topLeft.add(topRight).add(bottomLeft).add(bottomRight))
+                .subdivide(0, 0, size, depth, Math.min(depth, 2));
+        return weight[0] == 0 ? Double3.ZERO : sum.reduce(weight[0]);
+    }
+
+    /**
+     * Trace a shadow ray of the adaptive sampling of soft shadows
+     *
+     * @param fan         the fan of the light area
+     * @param gp          the point
+     * @param n           the normal at the point
+     * @param lightSource the light source
+     * @param x           the x coordinate of the sample, in grid units
+     * @param y           the y coordinate of the sample, in grid units
+     * @return the transparency along the shadow ray, null if the ray is on the other side of the surface
+     */
+    private Double3 traceShadowSample(RayFan fan, GeoPoint gp, Vector n, PointLight lightSource,
+                                      double x, double y) {
+        double center = (density - 1) / 2.0;
+        Ray ray = fan.getRay(x - center, center - y);
+        return ray == null ? null : transparency(gp, ray.getDirection(), n, lightSource);
+    }
+
+    /**
+     * Check if the transparencies at the corners of a square agree - all of them are equal. The shadow rays
+     * on the other side of the surface have no transparency, so they agree with each other and only
+     * the other transparencies are compared.
+     *
+     * @param samples the transparencies at the corners of the square
+     * @return true if the transparencies agree, false otherwise
+     */
+    private static boolean shadowsAgree(Double3... samples) {
+        Double3 first = null;
+        for (Double3 sample : samples) {
+            if (sample == null) continue;
+            if (first == null) first = sample;
+            else if (!sample.equals(first)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Resolve a square of the adaptive sampling of soft shadows - the average transparency of its corners that are
+     * on the right side of the surface, weighted by the area of the square
+     *
+     * @param size    the size of the side of the square, in grid units
+     * @param weight  the total weight (area) of the sampled squares, updated by the square
+     * @param samples the transparencies at the corners of the square
+     * @return the weighted transparency of the square
+     */
+    private static Double3 weighShadow(double size, double[] weight, Double3... samples) {
         Double3 ktr = Double3.ZERO;
-        List<Ray> rays = constructRays(new Ray(gp.point, l), n, lightSource.getShadowSoftness());
-        for (Ray r : rays)
-            ktr = ktr.add(transparency(gp, r.getDirection(), n, lightSource));
-        ktr = ktr.reduce(rays.size());
-        return ktr;
+        int count = 0;
+        for (Double3 sample : samples)
+            if (sample != null) {
+                ktr = ktr.add(sample);
+                count++;
+            }
+        if (count == 0) return Double3.ZERO;
+        weight[0] += size * size;
+        return ktr.scale(size * size / count);
     }
 }
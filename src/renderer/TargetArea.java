@@ -1,10 +1,10 @@
 package renderer;
 
+import geometries.Frustum;
 import primitives.Point;
 import primitives.Ray;
 import primitives.Vector;
 
-import java.util.LinkedList;
 import java.util.List;
 
 import static primitives.Util.alignZero;
@@ -97,22 +97,56 @@ public class TargetArea {
         return new Ray(p0, pIJ.subtract(p0));
     }
 
+    /**
+     * Construct the frustum of the rays through a rectangle of pixels - from the head of the rays through
+     * the outer corners of the rectangle
+     *
+     * @param nX     size of webcam in X
+     * @param nY     size of webcam in Y
+     * @param col    the column of the top left pixel of the rectangle
+     * @param row    the row of the top left pixel of the rectangle
+     * @param width  the amount of the columns in the rectangle
+     * @param height the amount of the rows in the rectangle
+     * @return the frustum of the rectangle
+     */
+    public Frustum constructFrustum(int nX, int nY, int col, int row, int width, int height) {
+        int right = col + width - 1, bottom = row + height - 1;
+        return new Frustum(p0,
+                constructRay(nX, nY, col, row, -0.5, 0.5).getDirection(),
+                constructRay(nX, nY, right, row, 0.5, 0.5).getDirection(),
+                constructRay(nX, nY, right, bottom, 0.5, -0.5).getDirection(),
+                constructRay(nX, nY, col, bottom, -0.5, -0.5).getDirection());
+    }
+
     /**
      * Constructs a grid of rays in the target area
      *
      * @return list of rays
      */
     public List<Ray> constructRayGrid() {
-        List<Ray> rays = new LinkedList<>();
-        for (int i = 0; i < density; ++i)
-            for (int j = 0; j < density; j++) {
-                // used of jitter make images more realistic but slower
-                //rays.add(constructRay(density, density, j, i, Math.random() - 0.5, Math.random() - 0.5));
-                rays.add(constructRay(density, density, j, i));
-            }
-        return rays;
+        return constructFan(density).getRays(RayFan.grid(density));
     }
 
+    /**
+     * Constructs rays through sample points of the target area
+     *
+     * @param generator the generator of the sample points
+     * @param count     the amount of the rays (the generator may round it)
+     * @return list of rays
+     */
+    public List<Ray> constructRays(SampleGenerator generator, int count) {
+        return constructFan(1).getRays(RayFan.generate(generator, count));
+    }
+
+    /**
+     * Construct the fan of the rays through the target area
+     *
+     * @param cells the amount of the cells of the pattern along a side of the area
+     * @return the fan
+     */
+    private RayFan constructFan(int cells) {
+        return new RayFan(p0, p0.add(vTo.scale(distance)), vRight, vUp, width / cells, height / cells);
+    }
 
     /**
      * Set the TargetArea direction according to the ray
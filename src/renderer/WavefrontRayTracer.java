@@ -0,0 +1,601 @@
+package renderer;
+
+import geometries.Intersectable;
+import lighting.DirectionalLight;
+import lighting.LightSource;
+import lighting.PointLight;
+import primitives.*;
+import scene.Scene;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static geometries.Intersectable.GeoPoint;
+import static primitives.Util.*;
+import static renderer.SimpleRayTracer.*;
+
+/**
+ * A wavefront ray tracer - traces a batch of rays (the primary rays of a tile) in stages, instead of tracing
+ * every ray recursively. Every generation of rays (the primary rays, then the reflected and refracted rays of
+ * their hits and so on) is traced together: the closest hits of the whole generation are found, the shadow rays
+ * of all the hits are queued and traced, the hits are shaded, and their reflected and refracted rays are queued
+ * as the next generation. When no rays are left, the colors are gathered from the last generation back to the
+ * primary rays.<br/>
+ * The stages run over flat arrays, and the colors are calculated by the same operations in the same order as in
+ * {@link SimpleRayTracer}, so the images are the same as the images of a simple ray tracer of the same density
+ * (with the regular grids of glossy rays and soft shadows).<br/>
+ * The memory is bounded - a generation has a maximum size (a fan that doesn't fit in the next generation is
+ * traced recursively by the simple ray tracer, see {@link #setMaxGenerationSize}), and the shadow rays of
+ * a generation are queued and traced for {@link #SHADOW_BATCH_SIZE} hits at a time.
+ */
+public class WavefrontRayTracer extends RayTracerBase {
+    /**
+     * The amount of the hits whose shadow rays are queued and traced together
+     */
+    private static final int SHADOW_BATCH_SIZE = 1 << 10;
+    /**
+     * The simple ray tracer of the scene, which calculates the effects of a single hit
+     */
+    private final SimpleRayTracer shader;
+    /**
+     * The density of the grid, used for glossy and diffused reflection and for soft shadows
+     */
+    private final int density;
+    /**
+     * Whether the secondary rays and the shadow rays are sorted before they are traced (see {@link #setRaySorting})
+     */
+    private boolean raySorting = false;
+    /**
+     * The maximum amount of the secondary rays of a generation
+     */
+    private int maxGenerationSize = 1 << 14;
+
+    /**
+     * A generation of rays - the rays and their hits, and the fans of the secondary rays of the hits
+     * in the next generation
+     */
+    private static final class Generation {
+        /**
+         * The amount of the rays
+         */
+        int size;
+        /**
+         * The rays
+         */
+        Ray[] rays;
+        /**
+         * The levels of the recursion of the rays
+         */
+        int[] levels;
+        /**
+         * The k values of the hits of the rays
+         */
+        Double3[] ks;
+        /**
+         * The factors of the colors of the rays, null for primary rays
+         */
+        Double3[] scales;
+        /**
+         * The closest hits of the rays, null if a ray hit nothing
+         */
+        GeoPoint[] hits;
+        /**
+         * The normals at the hits
+         */
+        Vector[] normals;
+        /**
+         * The colors of the rays - the local effects at the hits, and at last the colors of the rays
+         */
+        Color[] colors;
+        /**
+         * The indices of the first rays of the fans in the next generation, 2 per ray: reflected, refracted
+         */
+        int[] fanStarts;
+        /**
+         * The amounts of the rays of the fans, 2 per ray: reflected, refracted
+         */
+        int[] fanSizes;
+        /**
+         * Whether the colors of the rays of the fans are averaged (false for a single ray), 2 per ray
+         */
+        boolean[] fanAveraged;
+        /**
+         * The colors of the fans that were traced recursively instead of being queued, 2 per ray
+         * (null for the queued fans)
+         */
+        Color[] fanColors;
+
+        /**
+         * Constructor of an empty generation
+         *
+         * @param capacity the initial capacity
+         */
+        Generation(int capacity) {
+            capacity = Math.max(capacity, 16);
+            rays = new Ray[capacity];
+            levels = new int[capacity];
+            ks = new Double3[capacity];
+            scales = new Double3[capacity];
+        }
+
+        /**
+         * Add a ray to the generation
+         *
+         * @param ray   the ray
+         * @param level the level of the recursion of the ray
+         * @param k     the k value of the hit of the ray
+         * @param scale the factor of the color of the ray, null for a primary ray
+         */
+        void add(Ray ray, int level, Double3 k, Double3 scale) {
+            if (size == rays.length) {
+                int capacity = size * 2;
+                rays = Arrays.copyOf(rays, capacity);
+                levels = Arrays.copyOf(levels, capacity);
+                ks = Arrays.copyOf(ks, capacity);
+                scales = Arrays.copyOf(scales, capacity);
+            }
+            rays[size] = ray;
+            levels[size] = level;
+            ks[size] = k;
+            scales[size++] = scale;
+        }
+    }
+
+    /**
+     * The shadow rays of a generation - the requests of the lights of the hits (in the order of the hits and
+     * of the lights of the scene), and the directions of their rays
+     */
+    private static final class Shadows {
+        /**
+         * The amount of the requests
+         */
+        int size;
+        /**
+         * The indices of the hits of the requests in the generation
+         */
+        int[] hits = new int[16];
+        /**
+         * The lights of the requests
+         */
+        LightSource[] lights = new LightSource[16];
+        /**
+         * The light vectors at the hits
+         */
+        Vector[] ls = new Vector[16];
+        /**
+         * The dot products of the normals and the light vectors
+         */
+        double[] nls = new double[16];
+        /**
+         * The indices of the first shadow rays of the requests
+         */
+        int[] starts = new int[16];
+        /**
+         * Whether the requests are of soft shadows (their transparencies are averaged)
+         */
+        boolean[] soft = new boolean[16];
+        /**
+         * The amount of the shadow rays
+         */
+        int raysSize;
+        /**
+         * The directions of the shadow rays (towards the lights)
+         */
+        Vector[] directions = new Vector[16];
+        /**
+         * The transparencies along the shadow rays
+         */
+        Double3[] transparencies;
+
+        /**
+         * Add a request
+         *
+         * @param hit   the index of the hit in the generation
+         * @param light the light
+         * @param l     the light vector at the hit
+         * @param nl    the dot product of the normal and the light vector
+         * @param soft  whether the request is of a soft shadow
+         */
+        void addRequest(int hit, LightSource light, Vector l, double nl, boolean soft) {
+            if (size == hits.length) {
+                int capacity = size * 2;
+                hits = Arrays.copyOf(hits, capacity);
+                lights = Arrays.copyOf(lights, capacity);
+                ls = Arrays.copyOf(ls, capacity);
+                nls = Arrays.copyOf(nls, capacity);
+                starts = Arrays.copyOf(starts, capacity);
+                this.soft = Arrays.copyOf(this.soft, capacity);
+            }
+            hits[size] = hit;
+            lights[size] = light;
+            ls[size] = l;
+            nls[size] = nl;
+            starts[size] = raysSize;
+            this.soft[size++] = soft;
+        }
+
+        /**
+         * Add a shadow ray of the last request
+         *
+         * @param direction the direction of the ray (towards the light)
+         */
+        void addRay(Vector direction) {
+            if (raysSize == directions.length)
+                directions = Arrays.copyOf(directions, raysSize * 2);
+            directions[raysSize++] = direction;
+        }
+
+        /**
+         * Get the index after the last shadow ray of a request
+         *
+         * @param request the index of the request
+         * @return the index after its last shadow ray
+         */
+        int end(int request) {
+            return request + 1 < size ? starts[request + 1] : raysSize;
+        }
+    }
+
+    /**
+     * Constructor
+     *
+     * @param scene the scene to trace rays in
+     */
+    public WavefrontRayTracer(Scene scene) {
+        this(scene, 9);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param scene   the scene to trace rays in
+     * @param density the density of the grid (used for glossy and diffused reflection and for soft shadows)
+     */
+    public WavefrontRayTracer(Scene scene, int density) {
+        super(scene);
+        this.density = density;
+        this.shader = new SimpleRayTracer(scene, density);
+    }
+
+    /**
+     * Setter for the sorting of the rays - when it is on, the reflected and refracted rays of every generation and
+     * all the shadow rays are traced in the order of the octants of their directions and the Morton codes of their
+     * heads, instead of the order of the pixels (so rays that visit the same nodes of the hierarchy are traced
+     * together, the shadow rays in batches of hits). The colors don't depend on the order of the rays
+     *
+     * @param raySorting whether the rays are sorted
+     * @return the ray tracer itself
+     */
+    public WavefrontRayTracer setRaySorting(boolean raySorting) {
+        this.raySorting = raySorting;
+        return this;
+    }
+
+    /**
+     * Setter for the maximum amount of the secondary rays of a generation, which bounds the memory of the tracing
+     * (the surfaces that both reflect and refract double the rays of every generation, and the fans of glossy
+     * surfaces multiply them). A ray or a fan that doesn't fit in the next generation is traced recursively,
+     * with the same colors.
+     *
+     * @param maxGenerationSize the maximum amount of the rays
+     * @return the ray tracer itself
+     */
+    public WavefrontRayTracer setMaxGenerationSize(int maxGenerationSize) {
+        if (maxGenerationSize <= 0)
+            throw new IllegalArgumentException("generation size must be positive");
+        this.maxGenerationSize = maxGenerationSize;
+        return this;
+    }
+
+    @Override
+    public Color traceRay(Ray ray) {
+        return traceRays(new Ray[]{ray})[0];
+    }
+
+    @Override
+    public Color[] traceRays(Ray[] rays) {
+        return traceRays(rays, scene.geometries);
+    }
+
+    @Override
+    protected Color[] traceRays(Ray[] rays, Intersectable geometries) {
+        if (rays.length == 0) return new Color[0];
+        Generation generation = new Generation(rays.length);
+        for (Ray ray : rays)
+            generation.add(ray, MAX_CALC_COLOR_LEVEL, INITIAL_K, null);
+        Generation primary = generation;
+
+        List<Generation> generations = new ArrayList<>();
+        while (generation.size > 0) {
+            generations.add(generation);
+            findHits(generation, generation == primary ? geometries : scene.geometries,
+                    raySorting && generation != primary);
+            shade(generation);
+            Generation next = new Generation(generation.size);
+            queueSecondaryRays(generation, next);
+            generation = next;
+        }
+
+        for (int i = generations.size() - 1; i >= 0; i--)
+            gather(generations.get(i), i + 1 < generations.size() ? generations.get(i + 1) : null);
+        return Arrays.copyOf(primary.colors, primary.size);
+    }
+
+    /**
+     * Find the closest hits of all the rays of a generation
+     *
+     * @param generation the generation
+     * @param geometries the geometries the rays may hit
+     * @param sort       whether the rays are traced in the sorted order
+     */
+    private void findHits(Generation generation, Intersectable geometries, boolean sort) {
+        generation.hits = new GeoPoint[generation.size];
+        generation.normals = new Vector[generation.size];
+        int[] order = null;
+        if (sort) {
+            Point[] heads = new Point[generation.size];
+            Vector[] directions = new Vector[generation.size];
+            for (int i = 0; i < generation.size; i++) {
+                heads[i] = generation.rays[i].getHead();
+                directions[i] = generation.rays[i].getDirection();
+            }
+            order = RaySorter.order(heads, directions, generation.size);
+        }
+        for (int j = 0; j < generation.size; j++) {
+            int i = order == null ? j : order[j];
+            GeoPoint gp = shader.findClosestIntersection(generation.rays[i], geometries);
+            generation.hits[i] = gp;
+            if (gp != null) generation.normals[i] = gp.geometry.getNormal(gp.point);
+        }
+    }
+
+    /**
+     * Queue the shadow rays of some of the hits of a generation (as in {@link SimpleRayTracer#calcLocalEffects})
+     *
+     * @param generation the generation
+     * @param from       the index of the first hit
+     * @param to         the index after the last hit
+     * @return the shadow rays
+     */
+    private Shadows queueShadows(Generation generation, int from, int to) {
+        Shadows shadows = new Shadows();
+        for (int i = from; i < to; i++) {
+            GeoPoint gp = generation.hits[i];
+            if (gp == null) continue;
+            Vector n = generation.normals[i];
+            double nv = alignZero(n.dotProduct(generation.rays[i].getDirection()));
+            if (nv == 0) continue;
+
+            for (LightSource lightSource : scene.lights) {
+                Vector l = lightSource.getL(gp.point);
+                double nl = alignZero(n.dotProduct(l));
+                if (!compareSign(nl, nv)) continue;
+
+                if (lightSource instanceof DirectionalLight || (lightSource instanceof PointLight &&
+                        isZero(((PointLight) lightSource).getShadowSoftness()))) {
+                    // directional light or point light with sharp shadow
+                    shadows.addRequest(i, lightSource, l, nl, false);
+                    shadows.addRay(l);
+                } else {
+                    // the grid of the light area, as in SimpleRayTracer#calcLocalSoftShadowsEffects
+                    shadows.addRequest(i, lightSource, l, nl, true);
+                    double softness = ((PointLight) lightSource).getShadowSoftness();
+                    RayFan fan = new RayFan(new Ray(gp.point, l), n, softness, density);
+                    double[] pattern = RayFan.grid(density);
+                    for (int p = 0; p < pattern.length; p += 2) {
+                        Ray r = fan.getRay(pattern[p], pattern[p + 1]);
+                        if (r != null) shadows.addRay(r.getDirection());
+                    }
+                }
+            }
+        }
+        return shadows;
+    }
+
+    /**
+     * Trace all the shadow rays of a generation
+     *
+     * @param generation the generation
+     * @param shadows    the shadow rays
+     */
+    private void traceShadows(Generation generation, Shadows shadows) {
+        shadows.transparencies = new Double3[shadows.raysSize];
+        if (raySorting) {
+            traceSortedShadows(generation, shadows);
+            return;
+        }
+        for (int r = 0; r < shadows.size; r++) {
+            int hit = shadows.hits[r];
+            for (int s = shadows.starts[r]; s < shadows.end(r); s++)
+                shadows.transparencies[s] = shader.transparency(generation.hits[hit], shadows.directions[s],
+                        generation.normals[hit], shadows.lights[r]);
+        }
+    }
+
+    /**
+     * Trace all the shadow rays of a generation in the sorted order
+     *
+     * @param generation the generation
+     * @param shadows    the shadow rays
+     */
+    private void traceSortedShadows(Generation generation, Shadows shadows) {
+        int[] requests = new int[shadows.raysSize];
+        Point[] heads = new Point[shadows.raysSize];
+        for (int r = 0; r < shadows.size; r++) {
+            Point head = generation.hits[shadows.hits[r]].point;
+            for (int s = shadows.starts[r]; s < shadows.end(r); s++) {
+                requests[s] = r;
+                heads[s] = head;
+            }
+        }
+        for (int s : RaySorter.order(heads, shadows.directions, shadows.raysSize)) {
+            int r = requests[s], hit = shadows.hits[r];
+            shadows.transparencies[s] = shader.transparency(generation.hits[hit], shadows.directions[s],
+                    generation.normals[hit], shadows.lights[r]);
+        }
+    }
+
+    /**
+     * Calculate the local effects at all the hits of a generation - queue and trace the shadow rays of a batch
+     * of hits at a time, and shade the hits of the batch
+     *
+     * @param generation the generation
+     */
+    private void shade(Generation generation) {
+        generation.colors = new Color[generation.size];
+        for (int i = 0; i < generation.size; i++)
+            if (generation.hits[i] != null)
+                generation.colors[i] = generation.hits[i].geometry.getEmission();
+
+        for (int from = 0; from < generation.size; from += SHADOW_BATCH_SIZE) {
+            Shadows shadows = queueShadows(generation, from, Math.min(from + SHADOW_BATCH_SIZE, generation.size));
+            traceShadows(generation, shadows);
+            shade(generation, shadows);
+        }
+    }
+
+    /**
+     * Add the local effects of the lights to the hits of a generation, from the transparencies of their shadow rays
+     *
+     * @param generation the generation
+     * @param shadows    the traced shadow rays
+     */
+    private void shade(Generation generation, Shadows shadows) {
+        for (int r = 0; r < shadows.size; r++) {
+            int i = shadows.hits[r];
+            Double3 ktr;
+            if (shadows.soft[r]) {
+                ktr = Double3.ZERO;
+                int count = shadows.end(r) - shadows.starts[r];
+                for (int s = shadows.starts[r]; s < shadows.end(r); s++)
+                    ktr = ktr.add(shadows.transparencies[s]);
+                if (count > 0) ktr = ktr.reduce(count);
+            } else
+                ktr = shadows.transparencies[shadows.starts[r]];
+
+            if (!ktr.product(generation.ks[i]).lowerThan(MIN_CALC_COLOR_K)) {
+                GeoPoint gp = generation.hits[i];
+                Material material = gp.geometry.getMaterial();
+                Vector n = generation.normals[i], l = shadows.ls[r];
+                Vector v = generation.rays[i].getDirection();
+                Color iL = shadows.lights[r].getIntensity(gp.point).scale(ktr);
+                generation.colors[i] = generation.colors[i].add(iL.scale(
+                        shader.calcDiffusive(material, shadows.nls[r]).add(shader.calcSpecular(material, n, l, v))));
+            }
+        }
+    }
+
+    /**
+     * Queue the reflected and refracted rays of all the hits of a generation in the next generation
+     * (as in {@link SimpleRayTracer#calcGlobalEffects})
+     *
+     * @param generation the generation
+     * @param next       the next generation
+     */
+    private void queueSecondaryRays(Generation generation, Generation next) {
+        generation.fanStarts = new int[2 * generation.size];
+        generation.fanSizes = new int[2 * generation.size];
+        generation.fanAveraged = new boolean[2 * generation.size];
+        generation.fanColors = new Color[2 * generation.size];
+        for (int i = 0; i < generation.size; i++) {
+            GeoPoint gp = generation.hits[i];
+            if (gp == null || generation.levels[i] == 1) continue;
+            Vector v = generation.rays[i].getDirection();
+            Vector n = generation.normals[i];
+            Material material = gp.geometry.getMaterial();
+            queueFan(generation, 2 * i, shader.getReflectedRay(gp, v, n), n, material.kR, material.kG, next);
+            queueFan(generation, 2 * i + 1, shader.getRefractedRay(gp, v, n), n, material.kT, material.kB, next);
+        }
+    }
+
+    /**
+     * Queue a fan of reflected or refracted rays of a hit in the next generation
+     * (as in {@link SimpleRayTracer#calcGlobalEffectAverageColor})
+     *
+     * @param generation the generation of the hit
+     * @param fan        the index of the fan in the generation (twice the index of the hit, plus 1 for refraction)
+     * @param baseRay    the central ray of the fan
+     * @param n          the normal at the hit
+     * @param kx         the factor of the effect
+     * @param vpSize     the size of the square of the fan
+     * @param next       the next generation
+     */
+    private void queueFan(Generation generation, int fan, Ray baseRay, Vector n, Double3 kx, double vpSize,
+                          Generation next) {
+        int hit = fan / 2, level = generation.levels[hit] - 1;
+        Double3 k = generation.ks[hit];
+        generation.fanStarts[fan] = next.size;
+        generation.fanAveraged[fan] = !isZero(vpSize);
+        // the rays under the minimal contribution are black, as are the fans without rays
+        if (k.product(kx).lowerThan(MIN_CALC_COLOR_K)) return;
+        if (isZero(vpSize)) {
+            // a single ray that the next generation can't hold is traced recursively
+            if (next.size + 1 > maxGenerationSize) {
+                generation.fanColors[fan] = shader.calcGlobalEffect(baseRay, generation.levels[hit], k, kx);
+                return;
+            }
+            next.add(baseRay, level, kx, k);
+            generation.fanSizes[fan] = 1;
+            return;
+        }
+
+        // a fan that the next generation can't hold is traced recursively (by the same operations)
+        if (next.size + density * density > maxGenerationSize) {
+            generation.fanColors[fan] =
+                    shader.calcGlobalEffectAverageColor(baseRay, n, generation.levels[hit], k, kx, vpSize);
+            return;
+        }
+
+        RayFan rays = new RayFan(baseRay, n, vpSize, density);
+        double[] pattern = RayFan.grid(density);
+        for (int p = 0; p < pattern.length; p += 2) {
+            Ray r = rays.getRay(pattern[p], pattern[p + 1]);
+            if (r == null) continue;
+            next.add(r, level, kx, k);
+            generation.fanSizes[fan]++;
+        }
+    }
+
+    /**
+     * Gather the colors of the rays of a generation - add the colors of the fans of their hits
+     * from the next generation to the local effects, and scale them by the factors of the rays
+     *
+     * @param generation the generation
+     * @param next       the next generation (with its colors already gathered), null if it is the last one
+     */
+    private void gather(Generation generation, Generation next) {
+        for (int i = 0; i < generation.size; i++) {
+            if (generation.hits[i] == null) {
+                generation.colors[i] = scene.background;
+                continue;
+            }
+            Color color = generation.colors[i];
+            if (generation.levels[i] != 1)
+                color = color.add(fanColor(generation, 2 * i, next).add(fanColor(generation, 2 * i + 1, next)));
+            generation.colors[i] = generation.scales[i] == null
+                    ? color.add(scene.ambientLight.getIntensity())
+                    : color.scale(generation.scales[i]);
+        }
+    }
+
+    /**
+     * Get the color of a fan - the color of its single ray, the average color of its rays, or its color
+     * that was traced recursively
+     *
+     * @param generation the generation of the hit of the fan
+     * @param fan        the index of the fan in the generation
+     * @param next       the next generation, with the rays of the fan
+     * @return the color of the fan
+     */
+    private static Color fanColor(Generation generation, int fan, Generation next) {
+        if (generation.fanColors[fan] != null) return generation.fanColors[fan];
+        int start = generation.fanStarts[fan], size = generation.fanSizes[fan];
+        if (size == 0) return Color.BLACK;
+        if (!generation.fanAveraged[fan]) return next.colors[start];
+        Color color = Color.BLACK;
+        for (int r = start; r < start + size; r++)
+            color = color.add(next.colors[r]);
+        return color.reduce(size);
+    }
+}
@@ -0,0 +1,56 @@
+package geometries;
+
+import org.junit.jupiter.api.Test;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for geometries.BoundingBox class
+ */
+class BoundingBoxTest {
+    /**
+     * Delta value for accuracy when comparing the numbers of type 'double' in
+     * assertEquals
+     */
+    private static final double DELTA = 0.000001;
+
+    /**
+     * Test method for {@link geometries.BoundingBox#intersect(primitives.Ray, double)}.
+     */
+    @Test
+    void testIntersect() {
+        BoundingBox box = new BoundingBox(new Point(1, -1, -1), new Point(3, 1, 1));
+        double inf = Double.POSITIVE_INFINITY;
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Ray enters the box
+        assertEquals(1, box.intersect(new Ray(Point.ZERO, Vector.X), inf), DELTA, "Wrong distance to the entrance");
+
+        // TC02: Ray starts inside the box
+        assertEquals(0, box.intersect(new Ray(new Point(2, 0, 0), new Vector(-1, 0, 0)), inf), DELTA,
+                "Ray starts inside the box");
+
+        // TC03: Ray misses the box
+        assertEquals(inf, box.intersect(new Ray(Point.ZERO, new Vector(1, 2, 0)), inf), "Ray misses the box");
+
+        // TC04: The box is behind the ray
+        assertEquals(inf, box.intersect(new Ray(Point.ZERO, new Vector(-1, 0, 0)), inf), "Box behind the ray");
+
+        // TC05: The box is beyond the max distance
+        assertEquals(inf, box.intersect(new Ray(Point.ZERO, Vector.X), 0.5), "Box beyond the max distance");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: Ray is parallel to a face of the box and on its plane
+        assertEquals(1, box.intersect(new Ray(new Point(0, 1, 0), Vector.X), inf), DELTA, "Ray on the plane of a face");
+
+        // TC12: Ray is parallel to a face of the box and outside it
+        assertEquals(inf, box.intersect(new Ray(new Point(0, 2, 0), Vector.X), inf),
+                "Ray parallel to a face, outside the box");
+
+        // TC13: Empty box
+        assertFalse(new BoundingBox().hasIntersections(new Ray(Point.ZERO, Vector.X)), "Empty box");
+    }
+}
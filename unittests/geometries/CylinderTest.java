@@ -6,6 +6,7 @@ import primitives.Ray;
 import primitives.Vector;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 /**
  * Unit tests for geometries.Cylinder class
@@ -52,4 +53,32 @@ class CylinderTest {
     void testFindIntersections() {
         // TODO: check cases. consider we have TubeTest
     }
-}
\ No newline at end of file
+
+    /**
+     * Test method for {@link geometries.Cylinder#findClosestGeoIntersection(primitives.Ray, double)}.
+     */
+    @Test
+    void testFindClosestGeoIntersection() {
+        Cylinder cylinder = new Cylinder(new Ray(Point.ZERO, Vector.Z), 1, 3);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Ray crosses the side of the cylinder
+        assertEquals(new Intersectable.GeoPoint(cylinder, new Point(0, 1, 1)),
+                cylinder.findClosestGeoIntersection(new Ray(new Point(0, 3, 1), new Vector(0, -1, 0))),
+                "Ray crosses the side");
+
+        // TC02: Ray crosses the top base of the cylinder
+        assertEquals(new Intersectable.GeoPoint(cylinder, new Point(0.5, 0, 3)),
+                cylinder.findClosestGeoIntersection(new Ray(new Point(0.5, 0, 5), new Vector(0, 0, -1))),
+                "Ray crosses the top base");
+
+        // TC03: Ray's line crosses the tube of the cylinder above the cylinder
+        assertNull(cylinder.findClosestGeoIntersection(new Ray(new Point(0, 3, 4), new Vector(0, -1, 0))),
+                "Ray passes above the cylinder");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: The intersection is beyond the max distance
+        assertNull(cylinder.findClosestGeoIntersection(new Ray(new Point(0.5, 0, 5), new Vector(0, 0, -1)), 1),
+                "Intersection beyond max distance");
+    }
+}
@@ -0,0 +1,76 @@
+package geometries;
+
+import org.junit.jupiter.api.Test;
+import primitives.Point;
+import primitives.Vector;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for geometries.Frustum class
+ */
+class FrustumTest {
+    /**
+     * A frustum from the origin along the x axis, through the square (1, ±1, ±1)
+     */
+    private final Frustum frustum = new Frustum(Point.ZERO,
+            new Vector(1, 1, 1), new Vector(1, -1, 1), new Vector(1, -1, -1), new Vector(1, 1, -1));
+
+    /**
+     * Test method for {@link geometries.Frustum#intersects(geometries.BoundingBox)}.
+     */
+    @Test
+    void testIntersectsBox() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The box is inside the frustum
+        assertTrue(frustum.intersects(new BoundingBox(new Point(4, -1, -1), new Point(5, 1, 1))),
+                "Box inside the frustum");
+
+        // TC02: The box crosses a plane of the frustum
+        assertTrue(frustum.intersects(new BoundingBox(new Point(2, 1, -1), new Point(3, 5, 1))),
+                "Box crossing the frustum");
+
+        // TC03: The box is beside the frustum
+        assertFalse(frustum.intersects(new BoundingBox(new Point(2, 4, -1), new Point(3, 5, 1))),
+                "Box beside the frustum");
+
+        // TC04: The box is behind the apex
+        assertFalse(frustum.intersects(new BoundingBox(new Point(-5, -1, -1), new Point(-4, 1, 1))),
+                "Box behind the apex");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: The box contains the apex
+        assertTrue(frustum.intersects(new BoundingBox(new Point(-1, -1, -1), new Point(1, 1, 1))),
+                "Box around the apex");
+
+        // TC12: The box touches a plane of the frustum from outside
+        assertTrue(frustum.intersects(new BoundingBox(new Point(2, 3, -1), new Point(3, 5, 1))),
+                "Box touching the frustum");
+    }
+
+    /**
+     * Test method for {@link geometries.Frustum#intersects(primitives.Point, primitives.Vector)}.
+     */
+    @Test
+    void testIntersectsPlane() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The plane crosses the frustum in front of the apex
+        assertTrue(frustum.intersects(new Point(5, 0, 0), Vector.X), "Plane in front of the apex");
+
+        // TC02: The plane is behind the apex
+        assertFalse(frustum.intersects(new Point(-5, 0, 0), Vector.X), "Plane behind the apex");
+
+        // TC03: The plane is slanted behind the apex, all the edges go away from it
+        assertFalse(frustum.intersects(new Point(-1, 0, 0), new Vector(1, 0.5, 0)), "Slanted plane behind the apex");
+
+        // TC04: The plane is slanted and some edges reach it
+        assertTrue(frustum.intersects(new Point(0, -2, 0), new Vector(-1, 1, 0)), "Slanted plane");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: The plane contains the apex
+        assertTrue(frustum.intersects(Point.ZERO, Vector.Z), "Plane through the apex");
+
+        // TC12: The plane is parallel to an edge plane of the frustum, outside it
+        assertFalse(frustum.intersects(new Point(0, -1, 0), new Vector(1, 1, 0)), "Plane parallel to a side");
+    }
+}
@@ -1,12 +1,13 @@
 package geometries;
 
 import org.junit.jupiter.api.Test;
+import primitives.Double3;
+import primitives.Material;
 import primitives.Point;
 import primitives.Ray;
 import primitives.Vector;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.*;
 
 
 /**
@@ -70,4 +71,278 @@ public class GeometriesTests {
         assertEquals(3, geometries.findGeoIntersections(new Ray(new Point(0.5, 0, 0), Vector.X), 4).size(), "Some intersections within max distance");
     }
 
+    /**
+     * Test method for {@link geometries.Geometries#makeBVH(int)}.
+     */
+    @Test
+    void testMakeBVH() {
+        Geometries geometries = new Geometries(new Plane(new Point(0, 0, -5), Vector.Z));
+        for (int i = 0; i < 50; i++)
+            geometries.add(new Sphere(new Point(i * 3, 0, 0), 1d), new Triangle(new Point(i * 3 + 1.5, -1, -1),
+                    new Point(i * 3 + 1.5, 1, -1), new Point(i * 3 + 1.5, 0, 1)));
+        Ray alongSpheres = new Ray(new Point(-5, 0, 0), Vector.X);
+        Ray throughSphere = new Ray(new Point(30, 0, 10), new Vector(0, 0, -1));
+        Ray missAll = new Ray(new Point(-5, 5, 0), Vector.X);
+
+        geometries.makeBVH(2);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Ray crosses all the finite geometries
+        assertEquals(150, geometries.findIntersections(alongSpheres).size(), "Ray crosses all the finite geometries");
+
+        // TC02: Ray crosses one sphere and the infinite plane
+        assertEquals(3, geometries.findIntersections(throughSphere).size(), "Ray crosses one sphere and the plane");
+
+        // TC03: Ray misses all the geometries
+        assertNull(geometries.findIntersections(missAll), "Ray misses all the geometries");
+
+        // =============== Boundary Values Tests =================
+        // TC11: Rebuild with leaf size bigger than the amount of geometries
+        geometries.makeBVH(1000);
+        assertEquals(150, geometries.findIntersections(alongSpheres).size(), "Single leaf hierarchy");
+
+        // TC12: Illegal leaf size
+        assertThrows(IllegalArgumentException.class, () -> geometries.makeBVH(0), "Leaf size must be positive");
+        assertEquals(3, geometries.findIntersections(throughSphere).size(), "Failed build must keep the geometries");
+    }
+
+    /**
+     * Test method for {@link geometries.Geometries#findClosestGeoIntersection(primitives.Ray, double)}.
+     */
+    @Test
+    void testFindClosestGeoIntersection() {
+        Sphere sphere = new Sphere(new Point(2, 0, 0), 1d);
+        Triangle triangle = new Triangle(new Point(4, -2, -1), new Point(4, 2, -1), new Point(4, 0, 1));
+        Plane plane = new Plane(new Point(5, 2, 2), Vector.X);
+        Geometries geometries = new Geometries(plane, triangle, sphere);
+        geometries.makeBVH();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The closest intersection is with the first geometry on the ray
+        assertEquals(new Intersectable.GeoPoint(sphere, new Point(1, 0, 0)),
+                geometries.findClosestGeoIntersection(new Ray(new Point(0.5, 0, 0), Vector.X)),
+                "Closest intersection is with the sphere");
+
+        // TC02: The closest intersection is with the infinite geometry
+        assertEquals(new Intersectable.GeoPoint(plane, new Point(5, 0, 0)),
+                geometries.findClosestGeoIntersection(new Ray(new Point(4.5, 0, 0), Vector.X)),
+                "Closest intersection is with the plane");
+
+        // TC03: No intersections
+        assertNull(geometries.findClosestGeoIntersection(new Ray(new Point(0.5, 0, 0), Vector.Y)), "No intersections");
+
+        // =============== Boundary Values Tests =================
+        // TC11: The closest intersection is beyond the max distance
+        assertNull(geometries.findClosestGeoIntersection(new Ray(new Point(3.5, 0, 0), Vector.X), 0.2),
+                "Intersection beyond max distance");
+    }
+
+    /**
+     * Test method for {@link geometries.Geometries#findClosestHit(primitives.Ray, geometries.HitRecord)}.
+     */
+    @Test
+    void testFindClosestHit() {
+        Sphere sphere = new Sphere(new Point(2, 0, 0), 1d);
+        Plane plane = new Plane(new Point(5, 2, 2), Vector.X);
+        Geometries geometries = new Geometries(plane, sphere);
+        geometries.makeBVH();
+        HitRecord hit = new HitRecord();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The record is filled with the closest intersection
+        Ray ray = new Ray(new Point(0.5, 0, 0), Vector.X);
+        assertTrue(geometries.findClosestHit(ray, hit.reset(Double.POSITIVE_INFINITY)), "Closest hit must be found");
+        assertEquals(0.5, hit.t, 0.00001, "Wrong distance of the closest hit");
+        assertSame(sphere, hit.geometry, "Wrong geometry of the closest hit");
+        assertEquals(new Intersectable.GeoPoint(sphere, new Point(1, 0, 0)), hit.toGeoPoint(ray), "Wrong closest hit");
+
+        // TC02: The record already holds a closer intersection
+        assertFalse(geometries.findClosestHit(ray, hit.reset(0.2)), "Farther hits must be skipped");
+        assertFalse(hit.hasHit(), "The record must not be updated");
+        assertNull(hit.toGeoPoint(ray), "No hit means no GeoPoint");
+
+        // TC03: The record is reused for another ray
+        ray = new Ray(new Point(4.5, 0, 0), Vector.X);
+        assertTrue(geometries.findClosestHit(ray, hit.reset(Double.POSITIVE_INFINITY)), "Closest hit must be found");
+        assertSame(plane, hit.geometry, "Wrong geometry of the closest hit");
+        assertEquals(0.5, hit.t, 0.00001, "Wrong distance of the closest hit");
+    }
+
+    /**
+     * Test method for {@link geometries.Geometries#findClosestHits(primitives.Ray[], geometries.HitRecord[])}.
+     */
+    @Test
+    void testFindClosestHits() {
+        Geometries geometries = new Geometries(new Plane(new Point(0, 0, -10), Vector.Z));
+        for (int i = -3; i <= 3; i++)
+            for (int j = -3; j <= 3; j++)
+                geometries.add(new Sphere(new Point(i * 3, j * 3, (i + j) % 3), 1d));
+        geometries.makeBVH(2);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: A packet (with a partial last packet) finds the same hits as the rays one by one
+        Ray[] rays = new Ray[21];
+        HitRecord[] hits = new HitRecord[rays.length];
+        for (int i = 0; i < rays.length; i++) {
+            rays[i] = new Ray(new Point(0, 0, 20), new Vector(i % 7 - 3, i / 7 - 1, -4));
+            hits[i] = new HitRecord();
+        }
+        geometries.findClosestHits(rays, hits);
+        for (int i = 0; i < rays.length; i++) {
+            HitRecord hit = new HitRecord();
+            geometries.findClosestHit(rays[i], hit);
+            assertSame(hit.geometry, hits[i].geometry, "Wrong geometry of the closest hit of ray " + i);
+            assertEquals(hit.t, hits[i].t, 0, "Wrong distance of the closest hit of ray " + i);
+        }
+
+        // =============== Boundary Values Tests ==================
+        // TC11: The records already hold closer intersections
+        for (HitRecord hit : hits) hit.reset(0.5);
+        geometries.findClosestHits(rays, hits);
+        for (HitRecord hit : hits)
+            assertFalse(hit.hasHit(), "Farther hits must be skipped");
+    }
+
+    /**
+     * Test method for {@link geometries.Geometries#cull(geometries.Frustum)}.
+     */
+    @Test
+    void testCull() {
+        Geometries geometries = new Geometries(new Plane(new Point(0, 0, -10), Vector.Z));
+        for (int i = -3; i <= 3; i++)
+            for (int j = -3; j <= 3; j++)
+                geometries.add(new Sphere(new Point(i * 3, j * 3, (i + j) % 3), 1d));
+        geometries.makeBVH(2);
+        Point apex = new Point(0, 0, 20);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: A narrow frustum finds the same hits with the culled geometries as with all of them
+        Frustum frustum = new Frustum(apex, new Vector(2, 2, -20), new Vector(5, 2, -20),
+                new Vector(5, 5, -20), new Vector(2, 5, -20));
+        Intersectable visible = geometries.cull(frustum);
+        assertNotNull(visible, "The frustum must keep some geometries");
+        assertNotSame(geometries, visible, "The frustum must cull some geometries");
+        for (int i = 0; i <= 6; i++)
+            for (int j = 0; j <= 6; j++) {
+                Ray ray = new Ray(apex, new Vector(2 + i * 0.5, 2 + j * 0.5, -20));
+                HitRecord expected = new HitRecord(), hit = new HitRecord();
+                geometries.findClosestHit(ray, expected);
+                visible.findClosestHit(ray, hit);
+                assertSame(expected.geometry, hit.geometry, "Wrong geometry of the closest hit");
+                assertEquals(expected.t, hit.t, 0, "Wrong distance of the closest hit");
+            }
+
+        // TC02: A frustum through the middle of the hierarchy culls the nodes on both of its sides
+        frustum = new Frustum(apex, new Vector(-10, -0.5, -20), new Vector(10, -0.5, -20),
+                new Vector(10, 0.5, -20), new Vector(-10, 0.5, -20));
+        visible = geometries.cull(frustum);
+        assertNotSame(geometries, visible, "The frustum must cull the nodes on both sides");
+        for (int i = -10; i <= 10; i++) {
+            Ray ray = new Ray(apex, new Vector(i, 0.2, -20));
+            HitRecord expected = new HitRecord(), hit = new HitRecord();
+            geometries.findClosestHit(ray, expected);
+            visible.findClosestHit(ray, hit);
+            assertSame(expected.geometry, hit.geometry, "Wrong geometry of the closest hit in the middle");
+            assertEquals(expected.t, hit.t, 0, "Wrong distance of the closest hit in the middle");
+        }
+
+        // TC03: A frustum that sees nothing culls all the geometries
+        assertNull(geometries.cull(new Frustum(apex, new Vector(1, 1, 2), new Vector(-1, 1, 2),
+                new Vector(-1, -1, 2), new Vector(1, -1, 2))), "Nothing must be left behind the camera");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: A frustum that sees everything keeps all the geometries
+        assertSame(geometries, geometries.cull(new Frustum(apex, new Vector(1, 1, -1), new Vector(-1, 1, -1),
+                new Vector(-1, -1, -1), new Vector(1, -1, -1))), "Nothing must be culled");
+    }
+
+    /**
+     * Test method for
+     * {@link geometries.Geometries#calcTransparency(primitives.Ray, double, primitives.Double3, double)}.
+     */
+    @Test
+    void testCalcTransparency() {
+        Geometries geometries = new Geometries(
+                new Sphere(new Point(2, 0, 0), 1d).setMaterial(new Material().setKt(0.5)),
+                new Triangle(new Point(4, -2, -1), new Point(4, 2, -1), new Point(4, 0, 1)),
+                new Plane(new Point(5, 2, 2), Vector.X).setMaterial(new Material().setKt(0.5))
+        );
+        geometries.makeBVH();
+        Ray ray = new Ray(new Point(0.5, 0, 0), Vector.X);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The ray crosses only transparent geometries
+        assertEquals(new Double3(0.25), geometries.calcTransparency(ray, 3.5, Double3.ONE, 0.001),
+                "Ray crosses only the transparent sphere");
+
+        // TC02: The ray is blocked by an opaque geometry
+        assertEquals(Double3.ZERO, geometries.calcTransparency(ray, 10, Double3.ONE, 0.001),
+                "Ray is blocked by the triangle");
+
+        // TC03: The ray doesn't cross any geometry
+        assertEquals(Double3.ONE,
+                geometries.calcTransparency(new Ray(new Point(0.5, 0, 0), Vector.Y), 10, Double3.ONE, 0.001),
+                "Ray doesn't cross any geometry");
+
+        // =============== Boundary Values Tests =================
+        // TC11: The accumulated transparency drops under the minimum
+        assertEquals(Double3.ZERO, geometries.calcTransparency(ray, 3.5, Double3.ONE, 0.3),
+                "Transparency under the minimum");
+
+        // TC12: The geometries are beyond the max distance
+        assertEquals(Double3.ONE, geometries.calcTransparency(ray, 0.2, Double3.ONE, 0.001),
+                "Geometries beyond max distance");
+    }
+
+    /**
+     * Test method for {@link geometries.Geometries#makeCBR()} with unbounded geometries.
+     */
+    @Test
+    void testMakeCBR() {
+        Sphere sphere1 = new Sphere(new Point(2, 0, 0), 1d);
+        Sphere sphere2 = new Sphere(new Point(2, 4, 0), 1d);
+        Plane plane = new Plane(new Point(5, 0, 0), Vector.X);
+        Geometries geometries = new Geometries(sphere1, plane, sphere2);
+        geometries.makeCBR();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Ray crosses the bounded geometries and the plane
+        Ray ray = new Ray(new Point(0.5, 0, 0), Vector.X);
+        assertEquals(3, geometries.findIntersections(ray).size(), "Ray crosses the sphere and the plane");
+        assertSame(sphere1, geometries.findClosestGeoIntersection(ray).geometry, "Closest geometry is the sphere");
+
+        // TC02: Ray misses the box of the bounded geometries but crosses the plane
+        ray = new Ray(new Point(0.5, 0, 10), Vector.X);
+        assertEquals(1, geometries.findIntersections(ray).size(), "Ray crosses only the plane");
+        assertSame(plane, geometries.findClosestGeoIntersection(ray).geometry, "Closest geometry is the plane");
+        assertEquals(Double3.ZERO, geometries.calcTransparency(ray, 10, Double3.ONE, 0.001),
+                "Ray is blocked by the plane");
+
+        // =============== Boundary Values Tests =================
+        // TC11: A geometry added after the calculation is still intersected
+        geometries.add(new Sphere(new Point(2, 0, 10), 1d));
+        assertEquals(3, geometries.findIntersections(ray).size(), "Added sphere must be intersected");
+    }
+
+    /**
+     * Test method for {@link geometries.Geometries#getGeometries()}.
+     */
+    @Test
+    void testGetGeometries() {
+        Geometries geometries = new Geometries(new Plane(new Point(5, 2, 2), Vector.X),
+                new Sphere(new Point(2, 0, 0), 1d));
+        geometries.calcBoundingBox();
+        Ray ray = new Ray(new Point(-1, 0, 0), Vector.X);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: A geometry added through the list is intersected
+        geometries.getGeometries().add(new Sphere(new Point(-3, 0, 0), 1d));
+        assertEquals(5, geometries.findIntersections(new Ray(new Point(-5, 0, 0), Vector.X)).size(),
+                "The added sphere must be intersected");
+
+        // TC02: A geometry removed through the list is not intersected
+        geometries.calcBoundingBox();
+        geometries.getGeometries().remove(1);
+        assertEquals(1, geometries.findIntersections(ray).size(), "The removed sphere must not be intersected");
+    }
 }
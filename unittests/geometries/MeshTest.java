@@ -0,0 +1,145 @@
+package geometries;
+
+import org.junit.jupiter.api.Test;
+import primitives.*;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for geometries.Mesh class
+ */
+class MeshTest {
+    /**
+     * Delta value for accuracy when comparing the numbers of type 'double' in
+     * assertEquals
+     */
+    private static final double DELTA = 0.000001;
+
+    /**
+     * Vertices of a unit square on the plane x = 1, split into two faces
+     */
+    private static final double[] vertices = {1, 0, 0, 1, 1, 0, 1, 1, 1, 1, 0, 1};
+
+    /**
+     * Faces of the square
+     */
+    private static final int[] faces = {0, 1, 2, 0, 2, 3};
+
+    /**
+     * Test method for {@link geometries.Mesh#Mesh(double[], int[], int[], primitives.Material[], primitives.Color[])}.
+     */
+    @Test
+    void testConstructor() {
+        Material[] materials = {new Material()};
+        Color[] emissions = {Color.BLACK};
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Correct mesh
+        assertDoesNotThrow(() -> new Mesh(vertices, faces, new int[]{0, 0}, materials, emissions),
+                "Failed constructing a correct mesh");
+
+        // TC02: Face with a vertex out of range
+        assertThrows(IllegalArgumentException.class,
+                () -> new Mesh(vertices, new int[]{0, 1, 4}, new int[]{0}, materials, emissions),
+                "Vertex index out of range");
+
+        // TC03: Face with a surface out of range
+        assertThrows(IllegalArgumentException.class,
+                () -> new Mesh(vertices, faces, new int[]{0, 1}, materials, emissions), "Surface index out of range");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: Incomplete face
+        assertThrows(IllegalArgumentException.class,
+                () -> new Mesh(vertices, new int[]{0, 1}, new int[0], materials, emissions), "Face with 2 vertices");
+
+        // TC12: Missing face surfaces
+        assertThrows(IllegalArgumentException.class,
+                () -> new Mesh(vertices, faces, new int[]{0}, materials, emissions), "Face without a surface");
+    }
+
+    /**
+     * Test method for {@link geometries.Mesh#findIntersections(primitives.Ray)}.
+     */
+    @Test
+    void testFindIntersections() {
+        Mesh mesh = new Mesh(vertices, faces, new Material(), Color.BLACK);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Ray crosses the first face
+        assertEquals(List.of(new Point(1, 0.5, 0.25)),
+                mesh.findIntersections(new Ray(Point.ZERO, new Vector(1, 0.5, 0.25))), "Ray crosses the first face");
+
+        // TC02: Ray crosses the second face
+        assertEquals(List.of(new Point(1, 0.25, 0.5)),
+                mesh.findIntersections(new Ray(Point.ZERO, new Vector(1, 0.25, 0.5))), "Ray crosses the second face");
+
+        // TC03: Ray misses the mesh
+        assertNull(mesh.findIntersections(new Ray(Point.ZERO, new Vector(1, 2, 0.5))), "Ray misses the mesh");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: Ray crosses the shared edge of the faces
+        assertNull(mesh.findIntersections(new Ray(Point.ZERO, new Vector(1, 0.5, 0.5))), "Ray crosses the shared edge");
+
+        // TC12: Ray crosses a vertex
+        assertNull(mesh.findIntersections(new Ray(Point.ZERO, Vector.X)), "Ray crosses a vertex");
+
+        // TC13: Empty mesh
+        assertNull(new Mesh(new double[0], new int[0], new Material(), Color.BLACK)
+                .findIntersections(new Ray(Point.ZERO, Vector.X)), "Empty mesh");
+    }
+
+    /**
+     * Test method for {@link geometries.Mesh#findClosestGeoIntersection(primitives.Ray, double)}.
+     */
+    @Test
+    void testFindClosestGeoIntersection() {
+        Material[] materials = {new Material().setKd(0.1), new Material().setKd(0.2)};
+        Color[] emissions = {new Color(10, 0, 0), new Color(0, 10, 0)};
+        // two parallel squares - x = 1 with the first surface and x = 2 with the second one
+        Mesh mesh = new Mesh(
+                new double[]{1, 0, 0, 1, 1, 0, 1, 1, 1, 1, 0, 1, 2, 0, 0, 2, 1, 0, 2, 1, 1, 2, 0, 1},
+                new int[]{0, 1, 2, 0, 2, 3, 4, 5, 6, 4, 6, 7},
+                new int[]{0, 0, 1, 1}, materials, emissions);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Ray crosses both squares - the closest face is on the first one
+        Intersectable.GeoPoint gp = mesh.findClosestGeoIntersection(new Ray(Point.ZERO, new Vector(1, 0.5, 0.25)));
+        assertEquals(new Point(1, 0.5, 0.25), gp.point, "Wrong closest intersection");
+        assertSame(materials[0], gp.geometry.getMaterial(), "Wrong material of the closest face");
+        assertEquals(emissions[0], gp.geometry.getEmission(), "Wrong emission of the closest face");
+        assertEquals(1, Math.abs(gp.geometry.getNormal(gp.point).dotProduct(Vector.X)), DELTA,
+                "Wrong normal of the closest face");
+
+        // TC02: Ray starts between the squares
+        gp = mesh.findClosestGeoIntersection(new Ray(new Point(1.5, 0.5, 0.25), Vector.X));
+        assertEquals(new Point(2, 0.5, 0.25), gp.point, "Wrong closest intersection");
+        assertSame(materials[1], gp.geometry.getMaterial(), "Wrong material of the closest face");
+
+        // TC03: Ray misses the mesh
+        assertNull(mesh.findClosestGeoIntersection(new Ray(Point.ZERO, new Vector(1, 2, 0.5))), "Ray misses the mesh");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: The intersection is beyond the max distance
+        assertNull(mesh.findClosestGeoIntersection(new Ray(new Point(1.5, 0.5, 0.25), Vector.X), 0.5),
+                "Intersection beyond max distance");
+    }
+
+    /**
+     * Test method for {@link geometries.Mesh#calcTransparency(primitives.Ray, double, primitives.Double3, double)}.
+     */
+    @Test
+    void testCalcTransparency() {
+        Mesh mesh = new Mesh(vertices, faces, new Material().setKt(0.5), Color.BLACK);
+        Ray ray = new Ray(Point.ZERO, new Vector(1, 0.5, 0.25));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Ray crosses a transparent face
+        assertEquals(new Double3(0.5), mesh.calcTransparency(ray, Double.POSITIVE_INFINITY, Double3.ONE, 0.001),
+                "Wrong transparency");
+
+        // TC02: The face is beyond the max distance
+        assertEquals(Double3.ONE, mesh.calcTransparency(ray, 0.5, Double3.ONE, 0.001), "Face beyond max distance");
+    }
+}
@@ -98,4 +98,30 @@ class PlaneTest {
         // TC41: same above + head is relative point of plane
         assertNull(plane.findIntersections(new Ray(new Point(1, 0, 0), new Vector(0.5, 0.5, 0))), "not 0 intersection");
     }
-}
\ No newline at end of file
+
+    /**
+     * Test method for {@link geometries.Plane#findClosestGeoIntersection(primitives.Ray, double)}.
+     */
+    @Test
+    void testFindClosestGeoIntersection() {
+        Plane plane = new Plane(new Point(1, 0, 0), Vector.X);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Ray intersects the plane
+        assertEquals(new Intersectable.GeoPoint(plane, new Point(1, 1, 0)),
+                plane.findClosestGeoIntersection(new Ray(new Point(0, 1, 0), Vector.X)), "Ray intersects the plane");
+
+        // TC02: Ray goes away from the plane
+        assertNull(plane.findClosestGeoIntersection(new Ray(new Point(0, 1, 0), new Vector(-1, 0, 0))),
+                "Ray goes away from the plane");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: The intersection is beyond the max distance
+        assertNull(plane.findClosestGeoIntersection(new Ray(new Point(0, 1, 0), Vector.X), 0.5),
+                "Intersection beyond max distance");
+
+        // TC12: Ray is parallel to the plane
+        assertNull(plane.findClosestGeoIntersection(new Ray(new Point(0, 1, 0), Vector.Y)),
+                "Ray is parallel to the plane");
+    }
+}
@@ -129,4 +129,37 @@ public class PolygonTest {
         // TC13: Ray's line is on the continuation of the polygon's edge (0 points)
         assertNull(polygon.findIntersections(new Ray(p550, new Vector(1, 2, 0))), "Ray's line is on the continuation of the polygon's edge");
     }
+
+    /**
+     * Test method for {@link geometries.Polygon#findClosestGeoIntersection(primitives.Ray, double)}.
+     */
+    @Test
+    void testFindClosestGeoIntersection() {
+        Polygon polygon = new Polygon(new Point(1, -1, -1), new Point(1, 1, -1), new Point(1, 1, 1),
+                new Point(1, -1, 1));
+        Triangle triangle = new Triangle(new Point(1, -1, -1), new Point(1, 1, -1), new Point(1, 0, 1));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Ray crosses the polygon
+        assertEquals(new Intersectable.GeoPoint(polygon, new Point(1, 0.5, 0.5)),
+                polygon.findClosestGeoIntersection(new Ray(new Point(0, 0.5, 0.5), Vector.X)),
+                "Ray crosses the polygon");
+
+        // TC02: Ray crosses the triangle
+        assertEquals(new Intersectable.GeoPoint(triangle, new Point(1, 0, 0)),
+                triangle.findClosestGeoIntersection(new Ray(Point.ZERO, Vector.X)), "Ray crosses the triangle");
+
+        // TC03: Ray's line is outside the polygon
+        assertNull(polygon.findClosestGeoIntersection(new Ray(new Point(0, 2, 0), Vector.X)),
+                "Ray's line is outside the polygon");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: The intersection is beyond the max distance
+        assertNull(polygon.findClosestGeoIntersection(new Ray(new Point(0, 0.5, 0.5), Vector.X), 0.5),
+                "Intersection beyond max distance");
+
+        // TC12: Ray crosses the polygon's vertex
+        assertNull(polygon.findClosestGeoIntersection(new Ray(new Point(0, 1, 1), Vector.X)),
+                "Ray crosses the polygon's vertex");
+    }
 }
@@ -111,4 +111,36 @@ class SphereTest {
         assertEquals(List.of(new Point(0.5, 0.8660254037844386, 0.0)),
                 sphere.findIntersections(new Ray(new Point(0.5, 0, 0), Vector.Y)), "not 0 intersection");
     }
-}
\ No newline at end of file
+
+    /**
+     * Test method for {@link geometries.Sphere#findClosestGeoIntersection(primitives.Ray, double)}.
+     */
+    @Test
+    void testFindClosestGeoIntersection() {
+        Sphere sphere = new Sphere(new Point(1, 0, 0), 1d);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Ray starts before the sphere - the near point is the closest
+        assertEquals(new Intersectable.GeoPoint(sphere, Point.ZERO),
+                sphere.findClosestGeoIntersection(new Ray(new Point(-1, 0, 0), Vector.X)),
+                "Ray starts before the sphere");
+
+        // TC02: Ray starts inside the sphere - the far point is the closest
+        assertEquals(new Intersectable.GeoPoint(sphere, new Point(2, 0, 0)),
+                sphere.findClosestGeoIntersection(new Ray(new Point(0.5, 0, 0), Vector.X)),
+                "Ray starts inside the sphere");
+
+        // TC03: Ray starts after the sphere
+        assertNull(sphere.findClosestGeoIntersection(new Ray(new Point(3, 0, 0), Vector.X)),
+                "Ray starts after the sphere");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: The near point is beyond the max distance
+        assertNull(sphere.findClosestGeoIntersection(new Ray(new Point(-1, 0, 0), Vector.X), 1),
+                "Near point beyond max distance");
+
+        // TC12: Ray starts at the center
+        assertEquals(new Intersectable.GeoPoint(sphere, new Point(1, 1, 0)),
+                sphere.findClosestGeoIntersection(new Ray(new Point(1, 0, 0), Vector.Y)), "Ray starts at the center");
+    }
+}
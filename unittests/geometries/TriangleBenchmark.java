@@ -0,0 +1,101 @@
+package geometries;
+
+import XmlParser.XmlParser;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+import scene.Scene;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Micro benchmark of the triangle intersection kernel - compares the Möller–Trumbore kernel of {@link Triangle}
+ * with the general convex polygon kernel of {@link Polygon}, on the triangles of the teapot.<br/>
+ * It isn't a part of the unit tests - run its main method (from the directory of the project)
+ */
+public class TriangleBenchmark {
+    /**
+     * The amount of rays that are intersected with every triangle in a round
+     */
+    private static final int RAYS_COUNT = 2000;
+    /**
+     * The amount of rounds to run before measuring (to let the JIT compile the kernels)
+     */
+    private static final int WARMUP_ROUNDS = 5;
+    /**
+     * The amount of measured rounds
+     */
+    private static final int ROUNDS = 10;
+
+    /**
+     * Intersect all the rays with all the geometries
+     *
+     * @param geometries the geometries
+     * @param rays       the rays
+     * @param hit        the record to use for the intersections
+     * @return the amount of the rays that hit a geometry
+     */
+    private static int intersectAll(List<Geometry> geometries, Ray[] rays, HitRecord hit) {
+        int hits = 0;
+        for (Ray ray : rays) {
+            hit.reset(Double.POSITIVE_INFINITY);
+            for (Geometry geometry : geometries)
+                geometry.findClosestHit(ray, hit);
+            if (hit.hasHit()) hits++;
+        }
+        return hits;
+    }
+
+    /**
+     * Measure the average time of intersecting all the rays with all the geometries
+     *
+     * @param geometries the geometries
+     * @param rays       the rays
+     * @return the average time of a single ray-geometry test in nanoseconds
+     */
+    private static double measure(List<Geometry> geometries, Ray[] rays) {
+        HitRecord hit = new HitRecord();
+        for (int i = 0; i < WARMUP_ROUNDS; i++)
+            intersectAll(geometries, rays, hit);
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++)
+            intersectAll(geometries, rays, hit);
+        return (System.nanoTime() - start) / ((double) ROUNDS * rays.length * geometries.size());
+    }
+
+    /**
+     * Compare the kernels on the triangles of the teapot
+     *
+     * @param args unused
+     */
+    public static void main(String[] args) {
+        Scene scene = XmlParser.loadSceneFromXml("./xml/teapot.xml");
+        List<Geometry> polygons = new ArrayList<>();
+        List<Geometry> triangles = new ArrayList<>();
+        for (Intersectable i : scene.geometries.flattenGeometries().getGeometries())
+            if (i instanceof Polygon p && p.getVertices().size() == 3) {
+                List<Point> v = p.getVertices();
+                // no bounding boxes, so only the kernels themselves are measured
+                polygons.add(new Polygon(v.get(0), v.get(1), v.get(2)));
+                triangles.add(new Triangle(v.get(0), v.get(1), v.get(2)));
+            }
+
+        // rays from the camera of the teapot test towards the teapot
+        Random random = new Random(42);
+        Point camera = new Point(0, 0, -1500);
+        Ray[] rays = new Ray[RAYS_COUNT];
+        for (int i = 0; i < RAYS_COUNT; i++)
+            rays[i] = new Ray(camera,
+                    new Point(random.nextDouble(-50, 50), random.nextDouble(0, 60), 0).subtract(camera));
+
+        if (intersectAll(polygons, rays, new HitRecord()) != intersectAll(triangles, rays, new HitRecord()))
+            throw new IllegalStateException("The kernels must find the same hits");
+
+        double polygonTime = measure(polygons, rays);
+        double triangleTime = measure(triangles, rays);
+        System.out.printf("%d triangles x %d rays: polygon kernel %.1f ns/test, triangle kernel %.1f ns/test (x%.1f)%n",
+                triangles.size(), RAYS_COUNT, polygonTime, triangleTime, polygonTime / triangleTime);
+    }
+}
@@ -73,4 +73,29 @@ class TriangleTest {
         // TC13: Ray's line is on the continuation of the triangle's edge (0 points)
         assertNull(triangle.findIntersections(new Ray(Point.ZERO, new Vector(1, 2, 0))), "Ray's line is on the continuation of the triangle's edge");
     }
-}
\ No newline at end of file
+
+    /**
+     * Test method for {@link geometries.Triangle#findClosestHit(primitives.Ray, geometries.HitRecord)}.
+     */
+    @Test
+    void testFindClosestHit() {
+        Triangle triangle = new Triangle(new Point(1, 0, 0), new Point(1, 1, 0), new Point(1, 1, 1));
+        HitRecord hit = new HitRecord();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Ray crosses the triangle - the record holds the distance and the barycentric coordinates
+        assertTrue(triangle.findClosestHit(new Ray(Point.ZERO, new Vector(1, 0.5, 0.25)),
+                        hit.reset(Double.POSITIVE_INFINITY)),
+                "Ray crosses the triangle");
+        assertSame(triangle, hit.geometry, "Wrong geometry in the record");
+        assertEquals(new Vector(1, 0.5, 0.25).length(), hit.t, DELTA, "Wrong distance in the record");
+        assertEquals(0.25, hit.u, DELTA, "Wrong weight of the second vertex");
+        assertEquals(0.25, hit.v, DELTA, "Wrong weight of the third vertex");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: The intersection is beyond the distance of the record
+        assertFalse(triangle.findClosestHit(new Ray(Point.ZERO, new Vector(1, 0.5, 0.25)), hit.reset(1)),
+                "Intersection beyond the record's distance");
+        assertFalse(hit.hasHit(), "The record must not be updated");
+    }
+}
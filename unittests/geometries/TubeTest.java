@@ -102,4 +102,35 @@ class TubeTest {
         // TC23: Ray contained in tube boundary
         assertNull(tube.findIntersections(new Ray(new Point(1, 1, 1), Vector.Z)), "Ray contained in tube boundary");
     }
-}
\ No newline at end of file
+
+    /**
+     * Test method for {@link geometries.Tube#findClosestGeoIntersection(primitives.Ray, double)}.
+     */
+    @Test
+    void testFindClosestGeoIntersection() {
+        Tube tube = new Tube(new Ray(new Point(1, 0, 0), Vector.Z), 1);
+        Vector v0m10 = new Vector(0, -1, 0);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Ray starts before the tube - the near point is the closest
+        assertEquals(new Intersectable.GeoPoint(tube, new Point(1, 1, 0)),
+                tube.findClosestGeoIntersection(new Ray(new Point(1, 3, 0), v0m10)), "Ray starts before the tube");
+
+        // TC02: Ray starts inside the tube - the far point is the closest
+        assertEquals(new Intersectable.GeoPoint(tube, new Point(1, -1, 0)),
+                tube.findClosestGeoIntersection(new Ray(new Point(1, 0.5, 0), v0m10)), "Ray starts inside the tube");
+
+        // TC03: Ray starts after the tube
+        assertNull(tube.findClosestGeoIntersection(new Ray(new Point(1, -2, 0), v0m10)), "Ray starts after the tube");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: The near point is beyond the max distance
+        assertNull(tube.findClosestGeoIntersection(new Ray(new Point(1, 3, 0), v0m10), 1),
+                "Near point beyond max distance");
+
+        // TC12: The near point is exactly at the max distance (out of range, as in the other geometries)
+        assertNull(tube.findClosestGeoIntersection(new Ray(new Point(1, 3, 0), v0m10), 2),
+                "Near point at max distance");
+        assertNull(tube.findGeoIntersections(new Ray(new Point(1, 3, 0), v0m10), 2), "Near point at max distance");
+    }
+}
@@ -4,8 +4,7 @@ import org.junit.jupiter.api.Test;
 
 import java.util.List;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.*;
 
 /**
  * Unit tests for primitives.Ray class
@@ -56,4 +55,24 @@ public class RayTest {
         // TC13: last point is closest
         assertEquals(p1, ray.findClosestPoint(List.of(p2, p3, p1)), "closest point in the end of list");
     }
+
+    /**
+     * Test method for {@link primitives.Ray#isNegative(int)} and the inverse direction getters.
+     */
+    @Test
+    public void testInverseDirection() {
+        Ray ray = new Ray(Point.ZERO, new Vector(-2, 0, 2));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Negative and positive components
+        assertEquals(-Math.sqrt(2), ray.getInvDirX(), 0.00001, "Wrong inverse of a negative component");
+        assertEquals(Math.sqrt(2), ray.getInvDirZ(), 0.00001, "Wrong inverse of a positive component");
+        assertTrue(ray.isNegative(0), "X component is negative");
+        assertFalse(ray.isNegative(2), "Z component is positive");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: Zero component
+        assertEquals(Double.POSITIVE_INFINITY, ray.getInvDirY(), "Inverse of a zero component must be infinite");
+        assertFalse(ray.isNegative(1), "Zero component is not negative");
+    }
 }
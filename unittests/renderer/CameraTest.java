@@ -6,7 +6,13 @@ import primitives.Ray;
 import primitives.Vector;
 import scene.Scene;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 /**
  * Testing Camera Class
@@ -66,4 +72,74 @@ class CameraTest {
 
     }
 
+    /**
+     * Test method for
+     * {@link renderer.Camera.Builder#setExecutor(ExecutorService)}.
+     */
+    @Test
+    void testSetExecutor() {
+        cameraBuilder.setVpSize(8, 8).setImageWriter(new ImageWriter("Test", 8, 8));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: an injected executor is used for several renderings and is not shut down by the camera
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Camera camera = cameraBuilder.setMultithreading(3).setExecutor(executor).build();
+            camera.renderImage();
+            camera.renderImage();
+            assertFalse(executor.isShutdown(), "The camera must not shut down an injected executor");
+
+            // TC02: work stealing rendering requires a fork/join executor
+            assertThrows(IllegalArgumentException.class, () -> cameraBuilder.setWorkStealing(true).build(),
+                    "Work stealing with a non fork/join executor must fail");
+        } finally {
+            executor.shutdown();
+        }
+
+        // TC03: work stealing rendering in an injected fork/join pool
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            assertDoesNotThrow(() -> cameraBuilder.setExecutor(pool).setWorkStealing(true).build().renderImage(),
+                    "Work stealing rendering failed");
+        } finally {
+            pool.shutdown();
+        }
+
+        // =============== Boundary Values Tests ==================
+        // TC11: the shared executor is created again after it is shut down
+        Camera camera = cameraBuilder.setExecutor(null).setWorkStealing(false).build();
+        camera.renderImage();
+        Camera.shutdownSharedExecutor();
+        assertDoesNotThrow(camera::renderImage, "Rendering after shutting down the shared executor failed");
+
+        // TC12: the shared executor is shut down while a rendering uses it
+        CompletableFuture<Camera> rendering = CompletableFuture.supplyAsync(camera::renderImage);
+        Camera.shutdownSharedExecutor();
+        assertDoesNotThrow(() -> rendering.get(), "Rendering while shutting down the shared executor failed");
+    }
+
+    /**
+     * Test method for
+     * {@link renderer.Camera.Builder#setCostEstimation(int)}.
+     */
+    @Test
+    void testCostEstimation() {
+        cameraBuilder.setVpSize(8, 8).setImageWriter(new ImageWriter("Test", 20, 20)).setMultithreading(2);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the render time is estimated before rendering
+        Camera camera = cameraBuilder.setCostEstimation(4).build();
+        assertNull(camera.getTimeLeft(), "There is no estimation before rendering");
+        assertFalse(camera.estimateRenderTime().isNegative(), "Wrong estimated render time");
+
+        // TC02: the whole image is rendered with the tiles ordered by their costs
+        camera.renderImage();
+        assertEquals(100, camera.getProgress(), 1e-10, "Wrong progress after rendering");
+        assertEquals(Duration.ZERO, camera.getTimeLeft(), "No time should be left after rendering");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: negative probe spacing
+        assertThrows(IllegalArgumentException.class, () -> cameraBuilder.setCostEstimation(-1),
+                "Negative probe spacing must fail");
+    }
 }
@@ -81,4 +81,50 @@ public class GlossyDiffusedTest {
         camera.setImageWriter(new ImageWriter("Diffused - Test 1", 500, 500))
                 .build().renderImage().writeToImage();
     }
+
+    /**
+     * Test glossy reflection rendered in a work-stealing fork/join pool (should be identical to the glossy test)
+     */
+    @Test
+    void testGlossyWorkStealing() {
+        scene.geometries.add(new Plane(new Point(0, 0, -90), Vector.Z)
+                .setEmission(new Color(java.awt.Color.BLUE))
+                .setMaterial(new Material().setKd(0.5).setKs(0.5).setShininess(100).setKr(0.5).setKg(50))
+        );
+
+        camera.setImageWriter(new ImageWriter("Glossy - Work Stealing", 500, 500))
+                .setMultithreading(4).setWorkStealing(true)
+                .build().renderImage().writeToImage();
+    }
+
+    /**
+     * Test glossy reflection with adaptive sampling of the glossy rays (should look the same as the glossy test)
+     */
+    @Test
+    void testGlossyAdaptive() {
+        scene.geometries.add(new Plane(new Point(0, 0, -90), Vector.Z)
+                .setEmission(new Color(java.awt.Color.BLUE))
+                .setMaterial(new Material().setKd(0.5).setKs(0.5).setShininess(100).setKr(0.5).setKg(50))
+        );
+
+        camera.setImageWriter(new ImageWriter("Glossy - Adaptive", 500, 500))
+                .setRayTracer(new SimpleRayTracer(scene, 17).setAdaptiveGlossy(2))
+                .build().renderImage().writeToImage();
+    }
+
+    /**
+     * Test glossy reflection with a ray budget - the glossy rays are scaled by their contribution
+     * and limited per pixel (should look close to the glossy test)
+     */
+    @Test
+    void testGlossyRayBudget() {
+        scene.geometries.add(new Plane(new Point(0, 0, -90), Vector.Z)
+                .setEmission(new Color(java.awt.Color.BLUE))
+                .setMaterial(new Material().setKd(0.5).setKs(0.5).setShininess(100).setKr(0.5).setKg(50))
+        );
+
+        camera.setImageWriter(new ImageWriter("Glossy - Ray Budget", 500, 500))
+                .setRayTracer(new SimpleRayTracer(scene, 17).setRayBudget(0.05).setRayLimit(100))
+                .build().renderImage().writeToImage();
+    }
 }
@@ -0,0 +1,107 @@
+package renderer;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing PixelManager Class
+ */
+class PixelManagerTest {
+
+    /**
+     * Allocate all the tiles of a pixel manager and count how many times every pixel was covered
+     *
+     * @param manager the pixel manager
+     * @param rows    the amount of pixel rows
+     * @param cols    the amount of pixel columns
+     * @return the amount of times every pixel was covered by a tile
+     */
+    private static int[][] coverage(PixelManager manager, int rows, int cols) {
+        int[][] covered = new int[rows][cols];
+        PixelManager.Tile tile;
+        while ((tile = manager.nextTile()) != null) {
+            for (int i = tile.row(); i < tile.row() + tile.height(); i++)
+                for (int j = tile.col(); j < tile.col() + tile.width(); j++)
+                    covered[i][j]++;
+            manager.tileDone(tile);
+        }
+        return covered;
+    }
+
+    /**
+     * Test method for {@link renderer.PixelManager#nextTile()}.
+     */
+    @Test
+    void testNextTile() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the tiles cover every pixel of a non-square image exactly once (partial tiles at the edges)
+        PixelManager manager = new PixelManager(37, 50, 8, 0);
+        for (int[] row : coverage(manager, 37, 50))
+            for (int covered : row)
+                assertEquals(1, covered, "Every pixel must be covered exactly once");
+        assertEquals(100, manager.getProgress(), 1e-10, "Wrong progress after all the tiles");
+        assertNull(manager.nextTile(), "No tiles should be left");
+
+        // TC02: the tiles are handed out in Morton order
+        manager = new PixelManager(32, 32, 8, 0);
+        int[][] order = {{0, 0}, {8, 0}, {0, 8}, {8, 8}, {16, 0}};
+        for (int[] expected : order) {
+            PixelManager.Tile tile = manager.nextTile();
+            assertEquals(expected[0], tile.col(), "Wrong tile column");
+            assertEquals(expected[1], tile.row(), "Wrong tile row");
+        }
+
+        // =============== Boundary Values Tests ==================
+        // TC11: a tile larger than the image
+        manager = new PixelManager(5, 3, 16, 0);
+        assertEquals(new PixelManager.Tile(0, 0, 3, 5, 15), manager.nextTile(), "Wrong single tile");
+        assertNull(manager.nextTile(), "There should be a single tile");
+    }
+
+    /**
+     * Test method for {@link renderer.PixelManager#mortonCode(int, int)}.
+     */
+    @Test
+    void testMortonCode() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the bits of the column and the row are interleaved
+        assertEquals(0b111001, PixelManager.mortonCode(0b101, 0b110), "Wrong Morton code");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: the origin
+        assertEquals(0, PixelManager.mortonCode(0, 0), "Wrong Morton code of the origin");
+    }
+
+    /**
+     * Test method for
+     * {@link renderer.PixelManager#PixelManager(int, int, int, double, java.util.function.Function)}.
+     */
+    @Test
+    void testOrderByCost() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the most expensive tiles are handed out first, tiles of the same cost keep the Morton order
+        PixelManager manager = new PixelManager(32, 32, 8, 0, tiles -> Arrays.stream(tiles)
+                .mapToLong(t -> t.col() == 16 && t.row() == 8 ? 5 : t.col() == 8 && t.row() == 24 ? 3 : 1)
+                .toArray());
+        assertEquals(14 + 5 + 3, manager.getTotalCost(), "Wrong total cost");
+        PixelManager.Tile[] expected = {
+                new PixelManager.Tile(16, 8, 8, 8, 5), // the most expensive tile
+                new PixelManager.Tile(8, 24, 8, 8, 3),
+                new PixelManager.Tile(0, 0, 8, 8, 1), // equal tiles in the Morton order
+                new PixelManager.Tile(8, 0, 8, 8, 1)
+        };
+        for (PixelManager.Tile tile : expected) {
+            assertEquals(tile, manager.nextTile(), "Wrong order of the tiles");
+            manager.tileDone(tile);
+        }
+
+        // =============== Boundary Values Tests ==================
+        // TC11: no time left after all the tiles are rendered
+        coverage(manager, 32, 32);
+        assertEquals(Duration.ZERO, manager.getTimeLeft(), "No time should be left");
+    }
+}
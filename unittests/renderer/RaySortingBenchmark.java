@@ -0,0 +1,156 @@
+package renderer;
+
+import XmlParser.XmlParser;
+import geometries.Plane;
+import geometries.Sphere;
+import lighting.DirectionalLight;
+import lighting.PointLight;
+import primitives.*;
+import scene.Scene;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static geometries.Intersectable.GeoPoint;
+
+/**
+ * Benchmark of the sorting of incoherent rays ({@link RaySorter}, {@link WavefrontRayTracer#setRaySorting}) -
+ * compares the traversal of the reflected rays of mirror spheres around the teapot in the order of the pixels
+ * with their traversal in the sorted order, and the wavefront ray tracer with and without the sorting.<br/>
+ * The JVM doesn't expose the cache counters of the CPU, so the misses in the nodes of the hierarchy are seen here
+ * by the rays per second; to count them, run the benchmark under <code>perf stat -e cache-misses</code>.<br/>
+ * It isn't a part of the unit tests - run its main method (from the directory of the project)
+ */
+public class RaySortingBenchmark {
+    /**
+     * The resolution of the image (the amount of the primary rays along every axis)
+     */
+    private static final int RESOLUTION = 300;
+    /**
+     * The amount of rounds to run before measuring (to let the JIT compile the traversal)
+     */
+    private static final int WARMUP_ROUNDS = 3;
+    /**
+     * The amount of measured rounds
+     */
+    private static final int ROUNDS = 5;
+
+    /**
+     * Build the scene - the teapot, surrounded by mirror spheres above a mirror floor
+     *
+     * @return the scene
+     */
+    private static Scene createScene() {
+        Scene scene = XmlParser.loadSceneFromXml("./xml/teapot.xml");
+        scene.lights.add(new PointLight(new Color(150, 150, 150), new Point(100, 200, -300)).setKq(0.000001));
+        scene.lights.add(new DirectionalLight(new Color(60, 60, 60), new Vector(-1, -2, 1)));
+        Material mirror = new Material().setKd(0.2).setKs(0.3).setShininess(80).setKr(0.7);
+        for (int i = 0; i < 8; i++) {
+            double angle = i * Math.PI / 4;
+            scene.geometries.add(new Sphere(new Point(110 * Math.cos(angle), 0, 110 * Math.sin(angle)), 30)
+                    .setEmission(new Color(20, 20, 60)).setMaterial(mirror));
+        }
+        scene.geometries.add(new Plane(new Point(0, -50, 0), Vector.Y)
+                .setEmission(new Color(30, 30, 30)).setMaterial(new Material().setKd(0.4).setKr(0.5)));
+        scene.geometries.makeBVH();
+        return scene;
+    }
+
+    /**
+     * Find the closest hits of the rays in an order
+     *
+     * @param tracer the ray tracer of the scene
+     * @param rays   the rays
+     * @param order  the indices of the rays in the order of the traversal, null for the order of the rays
+     * @return the amount of the rays that hit a geometry
+     */
+    private static int traverse(SimpleRayTracer tracer, Ray[] rays, int[] order) {
+        int hits = 0;
+        for (int j = 0; j < rays.length; j++)
+            if (tracer.findClosestIntersection(rays[order == null ? j : order[j]]) != null) hits++;
+        return hits;
+    }
+
+    /**
+     * Measure the average time of the traversal of the rays in an order
+     *
+     * @param tracer the ray tracer of the scene
+     * @param rays   the rays
+     * @param order  the indices of the rays in the order of the traversal, null for the order of the rays
+     * @return the rays per second
+     */
+    private static double measure(SimpleRayTracer tracer, Ray[] rays, int[] order) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++)
+            traverse(tracer, rays, order);
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++)
+            traverse(tracer, rays, order);
+        return (double) ROUNDS * rays.length * 1e9 / (System.nanoTime() - start);
+    }
+
+    /**
+     * Measure the average time of tracing the rays by a wavefront ray tracer
+     *
+     * @param tracer the ray tracer
+     * @param rays   the primary rays
+     * @return the primary rays per second
+     */
+    private static double measure(WavefrontRayTracer tracer, Ray[] rays) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++)
+            tracer.traceRays(rays);
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++)
+            tracer.traceRays(rays);
+        return (double) ROUNDS * rays.length * 1e9 / (System.nanoTime() - start);
+    }
+
+    /**
+     * Compare the traversal of the reflected rays in the order of the pixels and in the sorted order,
+     * and the wavefront ray tracer with and without the sorting
+     *
+     * @param args not used
+     */
+    public static void main(String[] args) {
+        Scene scene = createScene();
+        // the primary rays of a camera above the teapot
+        TargetArea view = new TargetArea()
+                .setLocation(new Point(0, 300, -800))
+                .setDirection(new Vector(0, -300, 800), new Vector(0, 800, 300))
+                .setVpDistance(1000).setVpSize(400, 400);
+        Ray[] primary = new Ray[RESOLUTION * RESOLUTION];
+        for (int i = 0; i < RESOLUTION; i++)
+            for (int j = 0; j < RESOLUTION; j++)
+                primary[i * RESOLUTION + j] = view.constructRay(RESOLUTION, RESOLUTION, j, i);
+
+        // the reflected rays of the mirrors, in the order of the pixels
+        SimpleRayTracer tracer = new SimpleRayTracer(scene);
+        List<Ray> reflected = new ArrayList<>();
+        for (Ray ray : primary) {
+            GeoPoint gp = tracer.findClosestIntersection(ray);
+            if (gp == null || gp.geometry.getMaterial().kR.equals(Double3.ZERO)) continue;
+            reflected.add(tracer.getReflectedRay(gp, ray.getDirection(), gp.geometry.getNormal(gp.point)));
+        }
+        Ray[] rays = reflected.toArray(new Ray[0]);
+        Point[] heads = new Point[rays.length];
+        Vector[] directions = new Vector[rays.length];
+        for (int i = 0; i < rays.length; i++) {
+            heads[i] = rays[i].getHead();
+            directions[i] = rays[i].getDirection();
+        }
+        long start = System.nanoTime();
+        int[] order = RaySorter.order(heads, directions, rays.length);
+        double sortTime = (System.nanoTime() - start) / 1e6;
+
+        if (traverse(tracer, rays, null) != traverse(tracer, rays, order))
+            throw new IllegalStateException("The sorted rays must find the same hits");
+        double pixelOrder = measure(tracer, rays, null);
+        double sortedOrder = measure(tracer, rays, order);
+        System.out.printf("%d reflected rays: pixel order %.0f rays/s, sorted %.0f rays/s (x%.2f), sort %.1f ms%n",
+                rays.length, pixelOrder, sortedOrder, sortedOrder / pixelOrder, sortTime);
+
+        double unsorted = measure(new WavefrontRayTracer(scene), primary);
+        double sorted = measure(new WavefrontRayTracer(scene).setRaySorting(true), primary);
+        System.out.printf("wavefront %d primary rays: unsorted %.0f rays/s, sorted %.0f rays/s (x%.2f)%n",
+                primary.length, unsorted, sorted, sorted / unsorted);
+    }
+}
@@ -82,6 +82,39 @@ public class ReflectionRefractionTests {
                 .writeToImage();
     }
 
+    /**
+     * Produce a picture of spheres on mirrors with Russian roulette termination of the reflected and refracted rays
+     * (should look like the picture of the spheres on mirrors, with some noise)
+     */
+    @Test
+    public void twoSpheresOnMirrors_RussianRoulette() {
+        scene.geometries.add(
+                new Sphere(new Point(-950, -900, -1000), 400d).setEmission(new Color(0, 50, 100))
+                        .setMaterial(new Material().setKd(0.25).setKs(0.25).setShininess(20)
+                                .setKt(new Double3(0.5, 0, 0))),
+                new Sphere(new Point(-950, -900, -1000), 200d).setEmission(new Color(100, 50, 20))
+                        .setMaterial(new Material().setKd(0.25).setKs(0.25).setShininess(20)),
+                new Triangle(new Point(1500, -1500, -1500), new Point(-1500, 1500, -1500),
+                        new Point(670, 670, 3000))
+                        .setEmission(new Color(20, 20, 20))
+                        .setMaterial(new Material().setKr(1)),
+                new Triangle(new Point(1500, -1500, -1500), new Point(-1500, 1500, -1500),
+                        new Point(-1500, -1500, -2000))
+                        .setEmission(new Color(20, 20, 20))
+                        .setMaterial(new Material().setKr(new Double3(0.5, 0, 0.4))));
+        scene.setAmbientLight(new AmbientLight(new Color(255, 255, 255), 0.1));
+        scene.lights.add(new SpotLight(new Color(1020, 400, 400), new Point(-750, -750, -150), new Vector(-1, -1, -4))
+                .setKl(0.00001).setKq(0.000005));
+
+        cameraBuilder.setLocation(new Point(0, 0, 10000)).setVpDistance(10000)
+                .setVpSize(2500, 2500)
+                .setRayTracer(new SimpleRayTracer(scene).setRussianRoulette(0.3))
+                .setImageWriter(new ImageWriter("reflectionTwoSpheresMirrored-RussianRoulette", 500, 500))
+                .build()
+                .renderImage()
+                .writeToImage();
+    }
+
     /**
      * Produce a picture of two triangles lighted by a spotlight with a
      * partially
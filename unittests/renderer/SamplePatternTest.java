@@ -0,0 +1,79 @@
+package renderer;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing SamplePattern Class
+ */
+class SamplePatternTest {
+
+    /**
+     * Check that the points are in the unit square
+     *
+     * @param points the coordinates of the points
+     */
+    private static void assertInUnitSquare(double[] points) {
+        for (double p : points)
+            assertTrue(p >= 0 && p < 1, "The point is out of the unit square");
+    }
+
+    /**
+     * Test method for {@link renderer.SamplePattern#generate(int)}.
+     */
+    @Test
+    void testGenerate() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the regular grid is the centers of the cells
+        assertArrayEquals(new double[]{0.25, 0.25, 0.75, 0.25, 0.25, 0.75, 0.75, 0.75},
+                SamplePattern.GRID.generate(4), 1e-10, "Wrong grid points");
+
+        // TC02: stratified jitter puts a single point in every cell
+        double[] points = SamplePattern.STRATIFIED.generate(16);
+        assertEquals(32, points.length, "Wrong amount of stratified points");
+        assertInUnitSquare(points);
+        boolean[] cells = new boolean[16];
+        for (int k = 0; k < points.length; k += 2) {
+            int cell = (int) (points[k + 1] * 4) * 4 + (int) (points[k] * 4);
+            assertFalse(cells[cell], "Two stratified points in the same cell");
+            cells[cell] = true;
+        }
+
+        // TC03: Halton and Sobol points are in the unit square
+        for (SamplePattern pattern : new SamplePattern[]{SamplePattern.HALTON, SamplePattern.SOBOL}) {
+            points = pattern.generate(10);
+            assertEquals(20, points.length, "Wrong amount of points of " + pattern);
+            assertInUnitSquare(points);
+        }
+
+        // TC04: the rotated Sobol points keep the distances of the sequence along X modulo 1
+        // (the first 4 points of the first dimension are 0, 1/2, 1/4, 3/4)
+        points = SamplePattern.SOBOL.generate(4);
+        assertEquals(0.5, (points[2] - points[0] + 1) % 1, 1e-10, "Wrong Sobol point");
+        assertEquals(0.25, (points[4] - points[0] + 1) % 1, 1e-10, "Wrong Sobol point");
+        assertEquals(0.75, (points[6] - points[0] + 1) % 1, 1e-10, "Wrong Sobol point");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: the grid count is rounded to a square number
+        assertEquals(2 * 9, SamplePattern.GRID.generate(10).length, "Wrong amount of grid points");
+        // TC12: a single point
+        assertArrayEquals(new double[]{0.5, 0.5}, SamplePattern.GRID.generate(1), 1e-10, "Wrong single point");
+    }
+
+    /**
+     * Test method for {@link renderer.SamplePattern#radicalInverse(int, int)}.
+     */
+    @Test
+    void testRadicalInverse() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: base 2 (6 = 110b -> 0.011b)
+        assertEquals(0.375, SamplePattern.radicalInverse(6, 2), 1e-10, "Wrong radical inverse in base 2");
+        // TC02: base 3 (5 = 12 -> 0.21)
+        assertEquals(7.0 / 9, SamplePattern.radicalInverse(5, 3), 1e-10, "Wrong radical inverse in base 3");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: the first index
+        assertEquals(0, SamplePattern.radicalInverse(0, 2), 1e-10, "Wrong radical inverse of 0");
+    }
+}
@@ -164,4 +164,87 @@ public class ShadowTests {
                 .renderImage()
                 .writeToImage();
     }
+
+    /**
+     * same to trianglesSphere, but with adaptive anti-aliasing
+     */
+    @Test
+    public void trianglesSphere_AntiAliasing() {
+        scene.geometries.add(
+                new Triangle(new Point(-150, -150, -115), new Point(150, -150, -135),
+                        new Point(75, 75, -150))
+                        .setMaterial(new Material().setKs(0.8).setShininess(60)),
+                new Triangle(new Point(-150, -150, -115), new Point(-70, 70, -140), new Point(75, 75, -150))
+                        .setMaterial(new Material().setKs(0.8).setShininess(60)),
+                new Sphere(new Point(0, 0, -11), 30d)
+                        .setEmission(new Color(BLUE))
+                        .setMaterial(new Material().setKd(0.5).setKs(0.5).setShininess(30))
+        );
+        scene.setAmbientLight(new AmbientLight(new Color(WHITE), 0.15));
+        scene.lights.add(
+                new SpotLight(new Color(700, 400, 400), new Point(40, 40, 115), new Vector(-1, -1, -4))
+                        .setKl(4E-4).setKq(2E-5));
+
+        camera.setImageWriter(new ImageWriter("shadowTrianglesSphere-AntiAliasing", 600, 600))
+                .setAntiAliasing(3, 10)
+                .build()
+                .renderImage()
+                .writeToImage();
+    }
+
+    /**
+     * same to trianglesSphere_SoftShadow, but with adaptive sampling of the shadow rays
+     */
+    @Test
+    public void trianglesSphere_AdaptiveSoftShadow() {
+        scene.geometries.add(
+                new Triangle(new Point(-150, -150, -115), new Point(150, -150, -135),
+                        new Point(75, 75, -150))
+                        .setMaterial(new Material().setKs(0.8).setShininess(60)),
+                new Triangle(new Point(-150, -150, -115), new Point(-70, 70, -140), new Point(75, 75, -150))
+                        .setMaterial(new Material().setKs(0.8).setShininess(60)),
+                new Sphere(new Point(0, 0, -11), 30d)
+                        .setEmission(new Color(BLUE))
+                        .setMaterial(new Material().setKd(0.5).setKs(0.5).setShininess(30))
+        );
+        scene.setAmbientLight(new AmbientLight(new Color(WHITE), 0.15));
+        scene.lights.add(
+                new SpotLight(new Color(700, 400, 400), new Point(40, 40, 115), new Vector(-1, -1, -4))
+                        .setKl(4E-4).setKq(2E-5).setShadowSoftness(5));
+
+        camera.setImageWriter(new ImageWriter("shadowTrianglesSphere-AdaptiveSoftShadow", 600, 600))
+                .setRayTracer(new SimpleRayTracer(scene).setAdaptiveSoftShadows(true))
+                .build()
+                .renderImage()
+                .writeToImage();
+    }
+
+    /**
+     * same to trianglesSphere_SoftShadow, but with 16 shadow rays spread by a Sobol sequence
+     * and with 4 stratified rays per pixel
+     */
+    @Test
+    public void trianglesSphere_SobolSoftShadow() {
+        scene.geometries.add(
+                new Triangle(new Point(-150, -150, -115), new Point(150, -150, -135),
+                        new Point(75, 75, -150))
+                        .setMaterial(new Material().setKs(0.8).setShininess(60)),
+                new Triangle(new Point(-150, -150, -115), new Point(-70, 70, -140), new Point(75, 75, -150))
+                        .setMaterial(new Material().setKs(0.8).setShininess(60)),
+                new Sphere(new Point(0, 0, -11), 30d)
+                        .setEmission(new Color(BLUE))
+                        .setMaterial(new Material().setKd(0.5).setKs(0.5).setShininess(30))
+        );
+        scene.setAmbientLight(new AmbientLight(new Color(WHITE), 0.15));
+        scene.lights.add(
+                new SpotLight(new Color(700, 400, 400), new Point(40, 40, 115), new Vector(-1, -1, -4))
+                        .setKl(4E-4).setKq(2E-5).setShadowSoftness(5));
+
+        camera.setImageWriter(new ImageWriter("shadowTrianglesSphere-SobolSoftShadow", 600, 600))
+                .setRayTracer(new SimpleRayTracer(scene).setShadowSampling(SamplePattern.SOBOL, 16))
+                .setSupersampling(SamplePattern.STRATIFIED, 4)
+                .build()
+                .renderImage()
+                .writeToImage();
+    }
 }
@@ -0,0 +1,77 @@
+package renderer;
+
+import geometries.Geometries;
+import geometries.Plane;
+import org.junit.jupiter.api.Test;
+import primitives.*;
+import scene.Scene;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing SimpleRayTracer Class
+ */
+class SimpleRayTracerTest {
+    /**
+     * A scene of a glossy floor without lights - a ray that hits the floor casts a single fan of glossy rays,
+     * which reach the background
+     */
+    private final Scene scene = new Scene("SimpleRayTracerTest")
+            .setGeometries(new Geometries(new Plane(new Point(0, 0, -10), Vector.Z)
+                    .setMaterial(new Material().setKd(0.5).setKr(0.5).setKg(30))));
+    /**
+     * A ray that hits the floor
+     */
+    private final Ray ray = new Ray(Point.ZERO, new Vector(0, 1, -1));
+
+    /**
+     * Test method for {@link renderer.SimpleRayTracer#setRayLimit(int)}.
+     */
+    @Test
+    void testRayLimit() {
+        // the fans are grids of 4x4 rays, the limit allows a grid of 3x3 rays and 4 more rays
+        SimpleRayTracer tracer = new SimpleRayTracer(scene, 4).setRayLimit(13);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: every primary ray outside a pixel gets the whole limit
+        assertEquals(1 + 9, tracer.estimateCost(ray), "Wrong rays of the first primary ray");
+        assertEquals(1 + 9, tracer.estimateCost(ray), "Wrong rays of the second primary ray");
+
+        // TC02: the samples of a pixel share its limit, and only the traced rays are spent
+        tracer.startPixel();
+        try {
+            assertEquals(1 + 9, tracer.estimateCost(ray), "Wrong rays of the first sample");
+            assertEquals(1 + 4, tracer.estimateCost(ray), "Wrong rays of the second sample");
+        } finally {
+            tracer.endPixel();
+        }
+
+        // =============== Boundary Values Tests ==================
+        // TC11: the fans of a pixel that used up its limit collapse to their central rays
+        tracer.startPixel();
+        try {
+            tracer.estimateCost(ray);
+            tracer.estimateCost(ray);
+            assertEquals(1 + 1, tracer.estimateCost(ray), "The fan should collapse to its central ray");
+        } finally {
+            tracer.endPixel();
+        }
+
+        // TC12: the adaptive sampling doesn't exceed the limit
+        tracer.setAdaptiveGlossy(0);
+        assertEquals(1 + 9, tracer.estimateCost(ray), "Wrong rays with the adaptive sampling");
+
+        // TC13: only the rays of a fan that are traced are spent, not the samples on the other side of the surface.
+        // the reflected ray of a grazing ray is just above the floor, so half of the columns of its fans are below it
+        tracer = new SimpleRayTracer(scene, 4).setRayLimit(20);
+        Ray grazing = new Ray(Point.ZERO, new Vector(0, 1, -0.01));
+        tracer.startPixel();
+        try {
+            assertEquals(1 + 8, tracer.estimateCost(grazing), "Wrong rays of the first grazing sample");
+            // 12 rays are left - a grid of 3x3 rays, of which 2 columns are above the floor
+            assertEquals(1 + 6, tracer.estimateCost(grazing), "Wrong rays of the second grazing sample");
+        } finally {
+            tracer.endPixel();
+        }
+    }
+}
@@ -1646,4 +1646,26 @@ public class TeapotTest {
         camera.setRayTracer(new SimpleRayTracer(XmlParser.loadSceneFromXml("./xml/teapot.xml")))
                 .build().renderImage().writeToImage();
     }
+
+    /**
+     * same to teapot from the xml file, with packet traversal of the primary rays (should be the same image)
+     */
+    @Test
+    void teapotPacketTraversal() {
+        camera.setRayTracer(new SimpleRayTracer(XmlParser.loadSceneFromXml("./xml/teapot.xml"))
+                        .setPacketTraversal(true))
+                .setImageWriter(new ImageWriter("teapot-PacketTraversal", 800, 800))
+                .build().renderImage().writeToImage();
+    }
+
+    /**
+     * same to teapot from the xml file, with frustum culling of the tiles (should be the same image)
+     */
+    @Test
+    void teapotFrustumCulling() {
+        camera.setRayTracer(new SimpleRayTracer(XmlParser.loadSceneFromXml("./xml/teapot.xml")))
+                .setFrustumCulling(true)
+                .setImageWriter(new ImageWriter("teapot-FrustumCulling", 800, 800))
+                .build().renderImage().writeToImage();
+    }
 }
\ No newline at end of file
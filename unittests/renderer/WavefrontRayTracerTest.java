@@ -0,0 +1,180 @@
+package renderer;
+
+import geometries.Geometries;
+import geometries.Plane;
+import geometries.Polygon;
+import geometries.Sphere;
+import geometries.Triangle;
+import lighting.AmbientLight;
+import lighting.DirectionalLight;
+import lighting.PointLight;
+import lighting.SpotLight;
+import org.junit.jupiter.api.Test;
+import primitives.*;
+import scene.Scene;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing WavefrontRayTracer Class
+ */
+class WavefrontRayTracerTest {
+    /**
+     * A scene with all the effects - transparency, reflection, glossy and diffused surfaces,
+     * sharp and soft shadows
+     */
+    private final Scene scene = new Scene("WavefrontRayTracerTest")
+            .setAmbientLight(new AmbientLight(new Color(java.awt.Color.WHITE), 0.1))
+            .setBackground(new Color(30, 30, 60))
+            .setGeometries(new Geometries(
+                    new Sphere(new Point(-40, 0, 0), 30).setEmission(new Color(java.awt.Color.BLUE))
+                            .setMaterial(new Material().setKd(0.4).setKs(0.3).setShininess(100).setKt(0.5)),
+                    new Sphere(new Point(-40, 0, 0), 15).setEmission(new Color(java.awt.Color.RED))
+                            .setMaterial(new Material().setKd(0.5).setKs(0.5).setShininess(100)),
+                    new Sphere(new Point(40, 10, 0), 25).setEmission(new Color(20, 60, 20))
+                            .setMaterial(new Material().setKd(0.3).setKs(0.3).setShininess(50)
+                                    .setKt(0.4).setKb(20)),
+                    new Triangle(new Point(-100, -60, -40), new Point(100, -60, -40), new Point(0, 100, -60))
+                            .setEmission(new Color(20, 20, 20))
+                            .setMaterial(new Material().setKd(0.3).setKr(0.6)),
+                    new Plane(new Point(0, 0, -70), Vector.Z).setEmission(new Color(40, 20, 10))
+                            .setMaterial(new Material().setKd(0.5).setKs(0.2).setShininess(20)
+                                    .setKr(0.4).setKg(30))))
+            .setLights(List.of(
+                    new DirectionalLight(new Color(200, 200, 200), new Vector(1, -1, -2)),
+                    new PointLight(new Color(500, 300, 300), new Point(-60, 60, 80)).setKl(0.001)
+                            .setShadowSoftness(10),
+                    new SpotLight(new Color(400, 400, 200), new Point(80, -60, 100), new Vector(-1, 1, -2))
+                            .setKl(0.001)));
+
+    /**
+     * Test method for {@link renderer.WavefrontRayTracer#traceRays(primitives.Ray[])}.
+     */
+    @Test
+    void testTraceRays() {
+        Camera camera = Camera.getBuilder()
+                .setDirection(new Vector(0, 0, -1), Vector.Y)
+                .setLocation(new Point(0, -100, 300))
+                .setVpSize(200, 200).setVpDistance(250)
+                .setImageWriter(new ImageWriter("wavefront", 24, 24))
+                .setRayTracer(new SimpleRayTracer(scene, 3))
+                .build();
+        Ray[] rays = new Ray[24 * 24];
+        for (int i = 0; i < 24; i++)
+            for (int j = 0; j < 24; j++)
+                rays[i * 24 + j] = camera.constructRay(24, 24, j, i);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a batch of rays has the same colors as the rays traced one by one by the simple ray tracer
+        SimpleRayTracer simple = new SimpleRayTracer(scene, 3);
+        Color[] colors = new WavefrontRayTracer(scene, 3).traceRays(rays);
+        assertEquals(rays.length, colors.length, "Wrong amount of colors");
+        for (int i = 0; i < rays.length; i++) {
+            Color expected = simple.traceRay(rays[i]);
+            assertEquals(expected.getR(), colors[i].getR(), 0, "Wrong red component of ray " + i);
+            assertEquals(expected.getG(), colors[i].getG(), 0, "Wrong green component of ray " + i);
+            assertEquals(expected.getB(), colors[i].getB(), 0, "Wrong blue component of ray " + i);
+        }
+        // TC02: the sorting of the secondary and the shadow rays doesn't change the colors
+        Color[] sorted = new WavefrontRayTracer(scene, 3).setRaySorting(true).traceRays(rays);
+        for (int i = 0; i < rays.length; i++) {
+            assertEquals(colors[i].getR(), sorted[i].getR(), 0, "Wrong red component of sorted ray " + i);
+            assertEquals(colors[i].getG(), sorted[i].getG(), 0, "Wrong green component of sorted ray " + i);
+            assertEquals(colors[i].getB(), sorted[i].getB(), 0, "Wrong blue component of sorted ray " + i);
+        }
+
+        // =============== Boundary Values Tests ==================
+        // TC11: an empty batch
+        assertEquals(0, new WavefrontRayTracer(scene, 3).traceRays(new Ray[0]).length, "Wrong empty batch");
+        // TC12: a single ray
+        Color expected = simple.traceRay(rays[300]);
+        Color color = new WavefrontRayTracer(scene, 3).traceRay(rays[300]);
+        assertEquals(expected.getR(), color.getR(), 0, "Wrong color of a single ray");
+        assertEquals(expected.getG(), color.getG(), 0, "Wrong color of a single ray");
+        assertEquals(expected.getB(), color.getB(), 0, "Wrong color of a single ray");
+    }
+
+    /**
+     * Test method for {@link renderer.WavefrontRayTracer#setMaxGenerationSize(int)}.
+     */
+    @Test
+    void testGlossyOnGlossy() {
+        // a glossy floor under a tilted glossy panel - the glossy rays of the floor hit the panel, and its glossy
+        // rays hit the floor again, so the fans multiply the rays of every generation
+        Material glossy = new Material().setKd(0.5).setKr(0.5).setKg(20);
+        Scene mirrors = new Scene("GlossyOnGlossy")
+                .setGeometries(new Geometries(
+                        new Plane(new Point(0, 0, -100), Vector.Z).setEmission(new Color(40, 20, 10))
+                                .setMaterial(glossy),
+                        new Polygon(new Point(-30, -30, -30), new Point(30, -30, 30), new Point(30, 30, 30),
+                                new Point(-30, 30, -30)).setEmission(new Color(10, 20, 40)).setMaterial(glossy)))
+                .setLights(List.of(new DirectionalLight(new Color(200, 200, 200), new Vector(1, -1, -2))));
+        Ray[] rays = new Ray[16];
+        for (int i = 0; i < rays.length; i++)
+            rays[i] = new Ray(new Point(0, 0, -50), new Vector(i - 7.5, 3, -20));
+        SimpleRayTracer simple = new SimpleRayTracer(mirrors, 3);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the fans that don't fit in a generation are traced recursively, with the same colors
+        Color[] colors = new WavefrontRayTracer(mirrors, 3).setMaxGenerationSize(100).traceRays(rays);
+        for (int i = 0; i < rays.length; i++) {
+            Color expected = simple.traceRay(rays[i]);
+            assertEquals(expected.getR(), colors[i].getR(), 0, "Wrong red component of ray " + i);
+            assertEquals(expected.getG(), colors[i].getG(), 0, "Wrong green component of ray " + i);
+            assertEquals(expected.getB(), colors[i].getB(), 0, "Wrong blue component of ray " + i);
+        }
+
+        // =============== Boundary Values Tests ==================
+        // TC11: a generation size smaller than a fan traces all the fans recursively
+        Color color = new WavefrontRayTracer(mirrors, 3).setMaxGenerationSize(1).traceRay(rays[6]);
+        Color expected = simple.traceRay(rays[6]);
+        assertEquals(expected.getR(), color.getR(), 0, "Wrong color with recursive fans");
+        assertEquals(expected.getG(), color.getG(), 0, "Wrong color with recursive fans");
+        assertEquals(expected.getB(), color.getB(), 0, "Wrong color with recursive fans");
+        // TC12: the generation size must be positive
+        assertThrows(IllegalArgumentException.class, () -> new WavefrontRayTracer(mirrors).setMaxGenerationSize(0),
+                "A generation size of 0 is not allowed");
+    }
+
+    /**
+     * Test method for {@link renderer.WavefrontRayTracer#setMaxGenerationSize(int)}.
+     */
+    @Test
+    void testMirrorsAndTransparency() {
+        // nested spheres that both reflect and refract - every hit queues a reflected and a refracted ray,
+        // so the single rays double the rays of every generation
+        Material both = new Material().setKd(0.2).setKs(0.2).setShininess(30).setKr(0.5).setKt(0.5);
+        Scene spheres = new Scene("MirrorsAndTransparency")
+                .setBackground(new Color(30, 30, 60))
+                .setGeometries(new Geometries(
+                        new Sphere(new Point(0, 0, -100), 50).setEmission(new Color(20, 20, 60)).setMaterial(both),
+                        new Sphere(new Point(0, 0, -100), 25).setEmission(new Color(60, 20, 20)).setMaterial(both),
+                        new Plane(new Point(0, 0, -200), Vector.Z).setEmission(new Color(40, 20, 10))
+                                .setMaterial(both)))
+                .setLights(List.of(new DirectionalLight(new Color(200, 200, 200), new Vector(1, -1, -2))));
+        Ray[] rays = new Ray[16];
+        for (int i = 0; i < rays.length; i++)
+            rays[i] = new Ray(Point.ZERO, new Vector(i - 7.5, 3, -20));
+        SimpleRayTracer simple = new SimpleRayTracer(spheres);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the single rays that don't fit in a generation are traced recursively, with the same colors
+        Color[] colors = new WavefrontRayTracer(spheres).setMaxGenerationSize(40).traceRays(rays);
+        for (int i = 0; i < rays.length; i++) {
+            Color expected = simple.traceRay(rays[i]);
+            assertEquals(expected.getR(), colors[i].getR(), 0, "Wrong red component of ray " + i);
+            assertEquals(expected.getG(), colors[i].getG(), 0, "Wrong green component of ray " + i);
+            assertEquals(expected.getB(), colors[i].getB(), 0, "Wrong blue component of ray " + i);
+        }
+
+        // =============== Boundary Values Tests ==================
+        // TC11: a generation of a single ray traces all the secondary rays but the first recursively
+        Color color = new WavefrontRayTracer(spheres).setMaxGenerationSize(1).traceRay(rays[8]);
+        Color expected = simple.traceRay(rays[8]);
+        assertEquals(expected.getR(), color.getR(), 0, "Wrong color with recursive rays");
+        assertEquals(expected.getG(), color.getG(), 0, "Wrong color with recursive rays");
+        assertEquals(expected.getB(), color.getB(), 0, "Wrong color with recursive rays");
+    }
+}